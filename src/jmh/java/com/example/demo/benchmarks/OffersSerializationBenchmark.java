@@ -0,0 +1,59 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.models.JobOffer;
+import com.example.demo.models.Role;
+import com.example.demo.models.UserApp;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the Jackson serialization of the job offers list returned as JSON by GET /offers.
+ * Uses an ObjectMapper configured like the one Spring MVC builds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OffersSerializationBenchmark {
+
+    /** Number of offers in the serialized list */
+    @Param({"10", "1000", "10000"})
+    public int offerCount;
+
+    /** Number of distinct owners the offers are spread over */
+    @Param({"100"})
+    public int ownerCount;
+
+    private ObjectMapper objectMapper;
+    private List<JobOffer> offers;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<UserApp> owners = new ArrayList<>();
+        for (int i = 0; i < ownerCount; i++) {
+            UserApp owner = new UserApp("owner" + i, "$2a$10$abcdefghijklmnopqrstuvwxyz0123456789ABCDEFGHIJKLMNOPQ", Role.USER);
+            owner.setId(i + 1);
+            owners.add(owner);
+        }
+        offers = new ArrayList<>(offerCount);
+        for (int i = 0; i < offerCount; i++) {
+            JobOffer offer = new JobOffer("Java developer " + i, "Build and run our Spring Boot services, offer number " + i,
+                    "Company " + (i % 50), 40_000d + i, owners.get(i % ownerCount));
+            offer.setId((long) i + 1);
+            offers.add(offer);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeOffers() throws Exception {
+        return objectMapper.writeValueAsBytes(offers);
+    }
+}
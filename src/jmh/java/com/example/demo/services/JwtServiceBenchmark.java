@@ -0,0 +1,132 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Role;
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.UserAppRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the JWT hot paths: token generation at login, the cookie-to-principal
+ * verification done by {@link JwtService#doFilterInternal} on every request, and {@link JwtService#validateToken}.
+ * Parameterized by the size of the token payload and the number of cookies sent with the request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "svbfdsbfdfdbdfbfdbfdbfdbdfbdfbfdfdbdfbdffddsfvsdsdcvdsv";
+    private static final String COOKIE_NAME = "COOKIE";
+
+    /** Number of padding characters added to the token claims */
+    @Param({"0", "1024", "4096"})
+    public int tokenSize;
+
+    /** Number of cookies sent with the request, the JWT cookie being the last one */
+    @Param({"1", "10", "30"})
+    public int cookieCount;
+
+    /** Whether the verified-token cache is enabled */
+    @Param({"false", "true"})
+    public boolean tokenCache;
+
+    /** Whether the principal is built from the claims instead of being looked up */
+    @Param({"false", "true"})
+    public boolean stateless;
+
+    private JwtService jwtService;
+    private UserApp userApp;
+    private String token;
+    private Cookie[] cookies;
+
+    @Setup
+    public void setUp() {
+        userApp = new UserApp("benchmark", "$2a$10$abcdefghijklmnopqrstuv", Role.USER);
+        userApp.setId(1);
+
+        jwtService = new JwtService();
+        jwtService.setSecret(SECRET);
+        jwtService.setCookieName(COOKIE_NAME);
+        UserAppRepository repository = stubRepository(userApp);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        jwtService.setMeterRegistry(meterRegistry);
+        jwtService.userAppCache = new UserAppCache(repository, 10_000, Duration.ofMinutes(1),
+                Duration.ofMinutes(10), Duration.ofSeconds(30), meterRegistry);
+        jwtService.verifiedTokenCache = new VerifiedTokenCache(tokenCache, 10_000, Duration.ofMinutes(10), meterRegistry);
+        jwtService.tokenVersionService = new TokenVersionService(repository, 10_000, Duration.ofMinutes(1));
+        jwtService.tokenRevocationService = new TokenRevocationService(new InMemoryRevocationStore(), 100_000, 0.01,
+                Duration.ofMinutes(1), meterRegistry);
+        ReflectionTestUtils.setField(jwtService, "stateless", stateless);
+
+        token = padded(JwtService.generateToken(userApp), tokenSize);
+        cookies = new Cookie[cookieCount];
+        for (int i = 0; i < cookieCount - 1; i++) {
+            cookies[i] = new Cookie("other" + i, "value-" + i);
+        }
+        cookies[cookieCount - 1] = new Cookie(COOKIE_NAME, token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JwtService.generateToken(userApp);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return JwtService.validateToken(token, userApp);
+    }
+
+    @Benchmark
+    public void doFilterInternal(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hello/private");
+        request.setCookies(cookies);
+        jwtService.doFilterInternal(request, new MockHttpServletResponse(), new MockFilterChain());
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Re-signs a token with an extra padding claim so that its payload grows by the given size.
+     * The key ring is built from the same secret as the service's, so the service verifies the padded token.
+     */
+    private static String padded(String token, int size) {
+        if (size == 0) {
+            return token;
+        }
+        Claims claims = JwtService.parseClaims(token);
+        claims.put("padding", "x".repeat(size));
+        return JwtKeyRing.of(SECRET, null).sign(Jwts.builder().setClaims(claims));
+    }
+
+    /**
+     * Repository answering every lookup with the same user, so that only the JwtService code is measured.
+     */
+    private static UserAppRepository stubRepository(UserApp userApp) {
+        return (UserAppRepository) Proxy.newProxyInstance(UserAppRepository.class.getClassLoader(),
+                new Class<?>[]{UserAppRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername", "findById" -> Optional.of(userApp);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubUserAppRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
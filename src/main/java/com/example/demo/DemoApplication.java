@@ -2,6 +2,7 @@ package com.example.demo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 /**
  * Main Spring Boot application class for the JWT Security Demo.
@@ -12,8 +13,11 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - RESTful API endpoints for job offer management
  * - Spring Security configuration with custom JWT filter
  * - User registration and login functionality
+ *
+ * Also builds as a GraalVM native image through Spring AOT, see {@link NativeRuntimeHints}.
  */
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class DemoApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(DemoApplication.class, args);
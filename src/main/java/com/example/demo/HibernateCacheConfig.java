@@ -0,0 +1,85 @@
+package com.example.demo;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ObjectUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level and query cache configuration.
+ * Cached entities (see {@link com.example.demo.models.UserApp} and {@link com.example.demo.models.JobOffer})
+ * and cacheable queries are kept in Caffeine caches reached through JCache, one cache per region,
+ * each with its own maximum size and time to live ("jpa.cache.regions.&lt;region&gt;.*").
+ * Hibernate fails at startup on a region that is not configured here rather than creating an unbounded one.
+ */
+@Configuration
+@EnableConfigurationProperties(HibernateCacheConfig.RegionProperties.class)
+public class HibernateCacheConfig {
+
+    /**
+     * Creates the JCache manager holding one Caffeine cache per configured region.
+     * The provider shares its managers by URI, so each application context gets its own
+     * (test contexts run side by side in one JVM).
+     * @param properties the size and time to live of each region
+     * @param applicationContext the context owning the manager
+     * @return the cache manager handed to Hibernate
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(RegionProperties properties, ApplicationContext applicationContext) {
+        URI uri = URI.create("hibernate:" + ObjectUtils.getIdentityHexString(applicationContext));
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(uri, getClass().getClassLoader());
+        properties.regions().forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setStatisticsEnabled(true);
+            if (region.maxSize() > 0) {
+                configuration.setMaximumSize(OptionalLong.of(region.maxSize()));
+            }
+            if (region.ttl() != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(region.ttl().toNanos()));
+            }
+            cacheManager.createCache(name, configuration);
+        });
+        return cacheManager;
+    }
+
+    /**
+     * Makes Hibernate store its regions in the given cache manager instead of creating its own.
+     * @param hibernateCacheManager the cache manager holding the regions
+     * @return the customizer adding the cache manager to the Hibernate properties
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * Second-level cache regions, by region name.
+     * @param regions the size and time to live of each region
+     */
+    @ConfigurationProperties("jpa.cache")
+    public record RegionProperties(@DefaultValue Map<String, Region> regions) {
+
+        /**
+         * Settings of one region.
+         * @param maxSize the maximum number of entries, 0 for unbounded
+         * @param ttl how long an entry is kept after being written, none if absent
+         */
+        public record Region(@DefaultValue("0") long maxSize, Duration ttl) {
+        }
+    }
+}
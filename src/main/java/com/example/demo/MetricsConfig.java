@@ -0,0 +1,45 @@
+package com.example.demo;
+
+import com.example.demo.services.RequestTimings;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics configuration complementing the Actuator defaults.
+ * Repository calls are already timed by Spring Boot ("spring.data.repository.invocations",
+ * tagged with the repository, method and outcome); this adds them to the Server-Timing header.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Records the duration of every repository call made while handling a request as the "db" phase
+     * of its Server-Timing header, see {@link com.example.demo.services.ServerTimingFilter}.
+     * Static, as bean post-processors are created before the other beans of this configuration.
+     * @return the post-processor adding the invocation listener to every repository factory
+     */
+    @Bean
+    @ConditionalOnProperty(name = "metrics.server-timing.enabled", havingValue = "true")
+    public static BeanPostProcessor serverTimingRepositoryListener() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+                    repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory ->
+                            repositoryFactory.addInvocationListener(invocation -> {
+                                RequestTimings timings = RequestTimings.current();
+                                if (timings != null) {
+                                    timings.record("db", invocation.getDuration(TimeUnit.NANOSECONDS));
+                                }
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+}
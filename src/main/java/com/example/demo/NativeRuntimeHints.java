@@ -0,0 +1,99 @@
+package com.example.demo;
+
+import com.example.demo.dto.BatchDeleteResult;
+import com.example.demo.dto.OfferAggregates;
+import com.example.demo.dto.OfferPage;
+import com.example.demo.dto.OfferSearchResult;
+import com.example.demo.dto.OfferStreamEvent;
+import com.example.demo.dto.OfferSummary;
+import com.example.demo.models.JobOffer;
+import com.example.demo.models.UserApp;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reflection and resource hints of the native image (mvn -Pnative native:compile), for what Spring AOT cannot
+ * infer from the bean definitions:
+ * <ul>
+ *     <li>jjwt: jjwt-api instantiates its implementation by class name, and finds the Jackson (de)serializer
+ *     and the compression codecs of jjwt-impl and jjwt-jackson through service loading;</li>
+ *     <li>the entities and DTOs written and read as JSON, whose Lombok-generated accessors and record components
+ *     Jackson reaches by reflection (controllers returning ResponseEntity&lt;?&gt;, the offers snapshot and stream).
+ *     What Hibernate needs is registered by Spring's JPA AOT support from the managed types;</li>
+ *     <li>the Thymeleaf templates, and the version files Thymeleaf and its parser read when initialized;</li>
+ *     <li>the JCache provider and region factory, both instantiated by class name, and Caffeine's
+ *     JCache defaults (reference.conf).</li>
+ * </ul>
+ * Caffeine's generated cache classes are covered by the GraalVM reachability metadata the native profile adds.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    /** jjwt classes instantiated by name: by Jwts and CompressionCodecs, and as services by the builder and parser */
+    private static final String[] JJWT_IMPLEMENTATIONS = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+            "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    /** Service files listing the jjwt implementations */
+    private static final String[] JJWT_SERVICES = {
+            "META-INF/services/io.jsonwebtoken.io.Serializer",
+            "META-INF/services/io.jsonwebtoken.io.Deserializer",
+            "META-INF/services/io.jsonwebtoken.CompressionCodec"
+    };
+
+    /** Types serialized to or deserialized from JSON, with the types of their properties */
+    private static final Class<?>[] JSON_TYPES = {
+            JobOffer.class, UserApp.class,
+            OfferSummary.class, OfferPage.class, OfferSearchResult.class, BatchDeleteResult.class, OfferStreamEvent.class,
+            OfferAggregates.class
+    };
+
+    /** Version files read by Thymeleaf, AttoParser and Unbescape when their classes are initialized */
+    private static final String[] THYMELEAF_RESOURCES = {
+            "org/thymeleaf/thymeleaf.properties",
+            "org/attoparser/attoparser.properties",
+            "org/unbescape/unbescape.properties"
+    };
+
+    /** Hibernate's JCache region factory, selected by the "jcache" short name */
+    private static final String JCACHE_REGION_FACTORY = "org.hibernate.cache.jcache.internal.JCacheRegionFactory";
+
+    /**
+     * Registers the hints.
+     * @param hints the hints of the native image
+     * @param classLoader the class loader of the application
+     */
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String implementation : JJWT_IMPLEMENTATIONS) {
+            hints.reflection().registerType(TypeReference.of(implementation), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+        for (String services : JJWT_SERVICES) {
+            hints.resources().registerPattern(services);
+        }
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+
+        hints.resources().registerPattern("templates/*.html");
+        for (String resource : THYMELEAF_RESOURCES) {
+            hints.resources().registerPattern(resource);
+        }
+
+        hints.reflection().registerType(CaffeineCachingProvider.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(TypeReference.of(JCACHE_REGION_FACTORY), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("reference.conf");
+        hints.resources().registerPattern("META-INF/services/javax.cache.spi.CachingProvider");
+    }
+}
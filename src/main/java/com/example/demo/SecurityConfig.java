@@ -1,34 +1,67 @@
 package com.example.demo;
 
+import com.example.demo.services.AuthRateLimitFilter;
+import com.example.demo.services.BCryptStrengthCalibrator;
+import com.example.demo.services.JwtKeyRingProperties;
 import com.example.demo.services.JwtService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
+
 /**
  * Spring Security configuration class that defines the security filter chain
  * and authentication/authorization rules for the application.
  * Configures JWT-based authentication with role-based access control.
  */
 @Configuration
+@EnableConfigurationProperties(JwtKeyRingProperties.class)
 public class SecurityConfig {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(SecurityConfig.class);
+
     @Autowired
     private JwtService jwtService;
 
+    @Autowired(required = false)
+    private AuthRateLimitFilter authRateLimitFilter;
+
     /**
-     * Provides a BCrypt password encoder bean for secure password hashing.
-     * @return BCryptPasswordEncoder instance
+     * Provides the password encoder bean for secure password hashing.
+     * Passwords are encoded as "{bcrypt}" hashes whose work factor is calibrated at startup
+     * so that one hash takes about the configured target time on this hardware.
+     * Hashes stored without an algorithm prefix are still verified as BCrypt, and
+     * {@link PasswordEncoder#upgradeEncoding(String)} reports them (and any hash with a lower
+     * work factor) as outdated so they get re-encoded on the next successful login.
+     * @param targetHashTime the desired duration of one hash
+     * @param minStrength the lowest acceptable BCrypt work factor
+     * @param maxStrength the highest acceptable BCrypt work factor
+     * @return DelegatingPasswordEncoder instance encoding with BCrypt
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.target-hash-time:100ms}") Duration targetHashTime,
+                                           @Value("${security.password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${security.password.bcrypt.max-strength:16}") int maxStrength) {
+        int strength = BCryptStrengthCalibrator.calibrate(targetHashTime, minStrength, maxStrength);
+        LOGGER.info("BCrypt work factor calibrated to {} for a target hash time of {}", strength, targetHashTime);
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+        passwordEncoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder(strength));
+        return passwordEncoder;
     }
 
     /**
@@ -36,16 +69,19 @@ public class SecurityConfig {
      * Security configuration:
      * - Disables CSRF protection (stateless JWT authentication)
      * - Allows same-origin frame options for H2 console
-     * - Public endpoints: /, /login, /register, /hello/public, /auth/*, /h2-console/**, GET /offers
-     * - Authenticated endpoints: POST/DELETE /offers, /add-offer, /hello/private
-     * - Admin-only endpoints: /hello/private-admin
+     * - Public endpoints: /, /login, /register, GET /assets/**, /hello/public, /auth/*, /h2-console/**, GET /offers, GET /offers/search, GET /offers/aggregates, GET /offers/stream
+     * - Authenticated endpoints: POST/DELETE /offers (single and batch), /add-offer, /hello/private, /auth/logout-all
+     * - Admin-only endpoints: /hello/private-admin, /actuator/** (except /actuator/health)
      * - Adds JWT filter before username/password authentication filter
+     * - Throttles POST /auth/login and /auth/register per client IP and per username ahead of the JWT filter
+     * Only used by the servlet stack, see {@link com.example.demo.reactive.ReactiveSecurityConfig} for the reactive one.
      * 
      * @param http the HttpSecurity configuration object
      * @return configured SecurityFilterChain
      * @throws Exception if configuration fails
      */
     @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         return http
                 .csrf(csrf -> csrf.disable())
@@ -53,17 +89,21 @@ public class SecurityConfig {
                         .frameOptions(frameOptionsConfig -> frameOptionsConfig.sameOrigin()))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/", "/login", "/register").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/assets/**").permitAll()
                         .requestMatchers("/hello/public").permitAll()
                         .requestMatchers("/auth/login", "/auth/register", "/auth/status", "/auth/logout").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/offers").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/offers", "/offers/search", "/offers/aggregates", "/offers/stream").permitAll()
                 .requestMatchers(HttpMethod.POST, "/offers").authenticated()
                 .requestMatchers(HttpMethod.DELETE, "/offers/**").authenticated()
                         .requestMatchers(HttpMethod.GET, "/add-offer").authenticated()
                         .requestMatchers("/hello/private-admin").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtService, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(authRateLimitFilter, JwtService.class)
                 .build();
 
     }
@@ -0,0 +1,102 @@
+package com.example.demo;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.WebContentInterceptor;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * HTTP caching of the pages and of their static assets (the CSS and JavaScript of each page, under /assets).
+ * Assets are served under content-hashed URLs (e.g. /assets/css/offers-5d41402abc4b2a76b9719d911017c592.css), which the pages
+ * reference through Thymeleaf's link expressions, rewritten by {@link #assetUrlEncodingFilter()}:
+ * a changed file gets a new URL, so every version can be cached for good. Each asset has a gzipped copy next to it
+ * ({@code .gz}, checked against the asset by AssetCompressionTests), sent instead of compressing it on every request.
+ * Pages are revalidated on every load and answered with 304 Not Modified while unchanged,
+ * so repeat visits only transfer the offers data.
+ * Only used by the servlet stack, see {@link com.example.demo.reactive.ReactiveWebConfig} for the reactive one.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebConfig implements WebMvcConfigurer {
+
+    /** URL pattern of the static assets */
+    public static final String ASSETS_PATTERN = "/assets/**";
+    /** Location of the static assets */
+    public static final String ASSETS_LOCATION = "classpath:/static/assets/";
+
+    /** Pages rendered from the templates (GET /offers serves JSON too and sets its Cache-Control itself) */
+    private static final String[] PAGES = {"/login", "/register", "/add-offer"};
+
+    /**
+     * Returns the caching policy of the assets: their URLs change with their content,
+     * so browsers and proxies keep them for a year without ever revalidating them.
+     * @return the Cache-Control of the assets
+     */
+    public static CacheControl assetCacheControl() {
+        return CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+    }
+
+    /**
+     * Serves the assets under their content-hashed URLs, with {@link #assetCacheControl()}.
+     * Browsers accepting gzip get the precompressed {@code .gz} sibling of an asset, so assets are never
+     * compressed per request; the hash is computed on the uncompressed file.
+     * @param registry the resource handler registry
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(ASSETS_PATTERN)
+                .addResourceLocations(ASSETS_LOCATION)
+                .setCacheControl(assetCacheControl())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    /**
+     * Rewrites the asset URLs generated while rendering the pages (th:href, th:src) to their content-hashed versions.
+     * @return the filter
+     */
+    @Bean
+    public ResourceUrlEncodingFilter assetUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+
+    /**
+     * Makes browsers revalidate the pages on every load (instead of Spring Security's default no-store),
+     * so that they can be answered by {@link #pageEtagFilter()}.
+     * @param registry the interceptor registry
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        WebContentInterceptor interceptor = new WebContentInterceptor();
+        interceptor.addCacheMapping(CacheControl.noCache(), PAGES);
+        registry.addInterceptor(interceptor);
+    }
+
+    /**
+     * Adds an ETag computed from the rendered body to the pages and answers a matching If-None-Match
+     * with 304 Not Modified. Responses that carry their own ETag, like the JSON offers, are left unchanged.
+     * The ETag is weak as Tomcat does not compress responses with a strong one.
+     * @return the registration of the filter on the pages
+     */
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> pageEtagFilter() {
+        ShallowEtagHeaderFilter filter = new ShallowEtagHeaderFilter();
+        filter.setWriteWeakETag(true);
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns(PAGES);
+        registration.addUrlPatterns("/offers");
+        return registration;
+    }
+}
@@ -1,43 +1,222 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BatchDeleteResult;
+import com.example.demo.dto.OfferSearchResult;
+import com.example.demo.dto.OfferStreamEvent;
+import com.example.demo.dto.OfferSummary;
 import com.example.demo.models.JobOffer;
 import com.example.demo.models.UserApp;
 import com.example.demo.repositories.JobOfferRepository;
+import com.example.demo.services.OfferAggregator;
+import com.example.demo.services.OfferBatchService;
+import com.example.demo.services.OfferExportService;
+import com.example.demo.services.OfferSearchIndex;
+import com.example.demo.services.OfferStreamService;
+import com.example.demo.services.OffersChangedEvent;
+import com.example.demo.services.OffersSnapshot;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/offers")
 public class JobOfferController {
 
+    /** Number of offers per page when no limit is requested */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    /** Largest page size a client can request */
+    public static final int MAX_PAGE_SIZE = 500;
+    /** Largest page size of search results */
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+    /** Largest number of companies and owners returned by the aggregates */
+    public static final int MAX_AGGREGATE_TOP = 100;
+
     @Autowired
     private JobOfferRepository jobOfferRepository;
 
+    @Autowired
+    private OfferExportService offerExportService;
+
+    @Autowired
+    private OffersSnapshot offersSnapshot;
+
+    @Autowired
+    private OfferSearchIndex offerSearchIndex;
+
+    @Autowired
+    private OfferAggregator offerAggregator;
+
+    @Autowired
+    private OfferBatchService offerBatchService;
+
+    @Autowired
+    private OfferStreamService offerStreamService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${offers.batch.max-size:1000}")
+    private int maxBatchSize;
+
     /**
-     * Retrieves all job offers. Returns HTML view for browser requests
-     * and JSON for API calls.
+     * Retrieves job offers. Returns HTML view for browser requests
+     * and one page of JSON offers for API calls.
+     * Pages are ordered by id: pass the nextCursor of a page as cursor to get the following one.
+     * JSON pages come pre-serialized (and pre-compressed) from the {@link OffersSnapshot} with a strong ETag,
+     * and a matching If-None-Match is answered with 304 Not Modified.
+     * The HTML page is revalidated on every load, see {@link com.example.demo.WebConfig}.
      * @param request the HTTP servlet request
-     * @return ModelAndView for HTML requests or ResponseEntity with job offers for JSON requests
+     * @param servletResponse the HTTP servlet response
+     * @param webRequest the same request, used for the conditional GET handling
+     * @param cursor the id after which the page starts, absent for the first page
+     * @param limit the maximum number of offers in the page (1 to {@value #MAX_PAGE_SIZE})
+     * @return ModelAndView for HTML requests, ResponseEntity with a page of job offers for JSON requests,
+     *         or null when the client's copy is still current
      */
     @GetMapping
-    public Object getAllOffers(HttpServletRequest request) {
+    public Object getAllOffers(HttpServletRequest request,
+                               HttpServletResponse servletResponse,
+                               WebRequest webRequest,
+                               @RequestParam(required = false) Long cursor,
+                               @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
         String acceptHeader = request.getHeader("Accept");
         
         // If request is from browser (HTML), return the template
         if (acceptHeader != null && acceptHeader.contains("text/html")) {
+            servletResponse.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
             return new ModelAndView("offers");
         }
         
         // Otherwise, return JSON for API calls
-        return ResponseEntity.ok(jobOfferRepository.findAll());
+        long pageCursor = cursor != null ? cursor : 0L;
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        OffersSnapshot.SerializedPage page = offersSnapshot.getPage(pageCursor, pageSize, () -> jobOfferRepository.findPageAfter(pageCursor, pageSize));
+
+        boolean gzip = OffersSnapshot.acceptsGzip(String.join(",", Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))));
+        if (webRequest.checkNotModified(gzip ? page.gzipEtag() : page.etag())) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.gzip());
+        }
+        return response.body(page.json());
+    }
+
+    /**
+     * Searches job offers by text and salary range, best matches first.
+     * Served from the in-memory {@link OfferSearchIndex}, without querying the database.
+     * @param q words to look for in the title, company and description (prefixes match too)
+     * @param minSalary the minimum salary, inclusive
+     * @param maxSalary the maximum salary, inclusive
+     * @param page the index of the page, starting at 0
+     * @param size the page size (1 to {@value #MAX_SEARCH_PAGE_SIZE})
+     * @return ResponseEntity with the requested page of matching offers
+     */
+    @GetMapping("/search")
+    @ResponseBody
+    public ResponseEntity<OfferSearchResult> searchOffers(@RequestParam(defaultValue = "") String q,
+                                                         @RequestParam(required = false) Double minSalary,
+                                                         @RequestParam(required = false) Double maxSalary,
+                                                         @RequestParam(defaultValue = "0") int page,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(offerSearchIndex.search(q, minSalary, maxSalary,
+                Math.max(0, page), Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE))));
+    }
+
+    /**
+     * Returns statistics over all offers: offers per company and per owner, salary minimum, maximum, average
+     * and percentiles. Served from the incrementally maintained {@link OfferAggregator}, without querying the database.
+     * @param top the number of companies and owners to return (0 to {@value #MAX_AGGREGATE_TOP})
+     * @param percentiles the salary percentiles to estimate, between 0 and 100
+     * @param sketch whether to include the percentile sketch, for merging with the aggregates of other nodes
+     * @return ResponseEntity with the aggregates, or 400 if a percentile is out of range
+     */
+    @GetMapping("/aggregates")
+    @ResponseBody
+    public ResponseEntity<?> getAggregates(@RequestParam(defaultValue = "10") int top,
+                                           @RequestParam(defaultValue = "50,90,95,99") List<Double> percentiles,
+                                           @RequestParam(defaultValue = "false") boolean sketch) {
+        if (percentiles.stream().anyMatch(percentile -> !(percentile >= 0 && percentile <= 100))) {
+            return ResponseEntity.badRequest().body("Percentiles must be between 0 and 100");
+        }
+        return ResponseEntity.ok(offerAggregator.getAggregates(Math.max(0, Math.min(top, MAX_AGGREGATE_TOP)),
+                percentiles, sketch));
+    }
+
+    /**
+     * Pushes the offers created and deleted from now on as Server-Sent Events ("created" and "deleted" with the offer,
+     * "reset" when the client must reload the list), see {@link OfferStreamService}.
+     * The request is handled asynchronously, so an open stream holds no thread.
+     * @param lastEventId the id of the last event received, sent by reconnecting browsers
+     * @return the emitter the events are written to
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamOffers(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        // No timeout: clients that went away are detected when the heartbeats fail
+        SseEmitter emitter = new SseEmitter(0L);
+        OfferStreamService.Subscriber subscriber = offerStreamService.subscribe(lastEventId, new OfferStreamService.Delivery() {
+            @Override
+            public void send(OfferStreamEvent event) throws IOException {
+                if (event.isHeartbeat()) {
+                    emitter.send(SseEmitter.event().comment(event.type()));
+                } else {
+                    emitter.send(SseEmitter.event().id(Long.toString(event.id())).name(event.type())
+                            .data(event.data(), MediaType.APPLICATION_JSON));
+                }
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(() -> offerStreamService.unsubscribe(subscriber));
+        emitter.onError(e -> offerStreamService.unsubscribe(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Streams every job offer straight to the response body, with constant memory usage.
+     * @param format "ndjson" for JSON Lines (default) or "json" for a single JSON array
+     * @param response the HTTP servlet response written to
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/export")
+    public void exportOffers(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        boolean jsonLines = !"json".equals(format);
+        response.setContentType(jsonLines ? "application/x-ndjson" : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        offerExportService.export(response.getOutputStream(), jsonLines);
     }
 
     /**
@@ -51,9 +230,58 @@ public class JobOfferController {
     public ResponseEntity<JobOffer> createOffer(@RequestBody JobOffer jobOffer, @AuthenticationPrincipal UserApp currentUser) {
         jobOffer.setOwner(currentUser);
         JobOffer savedOffer = jobOfferRepository.save(jobOffer);
+        eventPublisher.publishEvent(OffersChangedEvent.created(List.of(OfferSummary.of(savedOffer))));
         return ResponseEntity.ok(savedOffer);
     }
 
+    /**
+     * Creates several job offers for the authenticated user in one request and one transaction.
+     * @param jobOffers the job offers to create
+     * @param currentUser the authenticated user
+     * @return ResponseEntity with the created job offers, or 400 if the batch is empty or too large
+     */
+    @PostMapping("/batch")
+    @ResponseBody
+    public ResponseEntity<?> createOffers(@RequestBody List<JobOffer> jobOffers, @AuthenticationPrincipal UserApp currentUser) {
+        if (jobOffers.isEmpty() || jobOffers.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("A batch must contain between 1 and " + maxBatchSize + " job offers");
+        }
+        List<OfferSummary> savedOffers = offerBatchService.createAll(jobOffers, currentUser);
+        eventPublisher.publishEvent(OffersChangedEvent.created(savedOffers));
+        return ResponseEntity.ok(savedOffers);
+    }
+
+    /**
+     * Deletes several job offers by ID in one request and one transaction.
+     * Users can only delete their own job offers unless they have ADMIN role;
+     * if any of the offers belongs to someone else, none is deleted.
+     * @param ids the IDs of the job offers to delete
+     * @param currentUser the authenticated user
+     * @return ResponseEntity with the deletion outcome or error status
+     */
+    @DeleteMapping("/batch")
+    @ResponseBody
+    public ResponseEntity<?> deleteOffers(@RequestBody List<Long> ids, @AuthenticationPrincipal UserApp currentUser) {
+        if (ids.isEmpty() || ids.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body("A batch must contain between 1 and " + maxBatchSize + " job offer ids");
+        }
+        boolean isAdmin = SecurityContextHolder.getContext().getAuthentication()
+                .getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+
+        List<OfferSummary> deletedOffers;
+        try {
+            deletedOffers = offerBatchService.deleteAll(ids, currentUser, isAdmin);
+        } catch (AccessDeniedException e) {
+            return ResponseEntity.status(403).body(e.getMessage());
+        }
+        eventPublisher.publishEvent(OffersChangedEvent.deleted(deletedOffers));
+
+        Set<Long> deletedIds = new HashSet<>();
+        deletedOffers.forEach(offer -> deletedIds.add(offer.id()));
+        List<Long> notFound = ids.stream().filter(id -> !deletedIds.contains(id)).distinct().toList();
+        return ResponseEntity.ok(new BatchDeleteResult(deletedOffers.size(), notFound));
+    }
+
     /**
      * Deletes a job offer by ID. Users can only delete their own job offers
      * unless they have ADMIN role.
@@ -79,6 +307,7 @@ public class JobOfferController {
         }
         
         jobOfferRepository.delete(offer);
+        eventPublisher.publishEvent(OffersChangedEvent.deleted(List.of(OfferSummary.of(offer))));
         return ResponseEntity.ok("Job offer deleted successfully");
     }
 }
\ No newline at end of file
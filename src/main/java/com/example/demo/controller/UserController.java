@@ -4,20 +4,30 @@ import com.example.demo.models.Role;
 import com.example.demo.models.UserApp;
 import com.example.demo.repositories.UserAppRepository;
 import com.example.demo.services.JwtService;
+import com.example.demo.services.PasswordHashingService;
+import com.example.demo.services.TokenVersionService;
+import com.example.demo.services.UserAppCache;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.ModelAndView;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controller for managing user authentication and registration.
@@ -25,6 +35,7 @@ import java.util.Optional;
  * Provides both HTML views for browsers and JSON responses for API calls.
  */
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserController {
 
     @Autowired
@@ -32,7 +43,15 @@ public class UserController {
     @Autowired
     UserAppRepository userAppRepository;
     @Autowired
-    PasswordEncoder passwordEncoder;
+    PasswordHashingService passwordHashingService;
+    @Autowired
+    TokenVersionService tokenVersionService;
+    @Autowired
+    UserAppCache userAppCache;
+    /** Runs the database writes that follow a password check, so they do not hold a hashing thread */
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    Executor persistenceExecutor;
     
     @Value("${jwt.cookie_name}")
     private String cookieName;
@@ -92,54 +111,94 @@ public class UserController {
     }
 
     /**
-     * Authenticates a user and returns a JWT token in a cookie.
+     * Authenticates a user and returns a short-lived JWT access token and a refresh token in cookies.
+     * The password check runs on the {@link PasswordHashingService} pool, not on the request thread,
+     * and a stored hash using an outdated algorithm or work factor is re-encoded in the background.
+     * The refresh token is then stored on the application task executor.
      * @param userApp the user credentials
-     * @return ResponseEntity with authentication token cookie or error
+     * @return future ResponseEntity with authentication token cookie or error
      * @throws Exception if authentication fails
      */
     @PostMapping("/auth/login")
     @ResponseBody
-    public ResponseEntity<?> login(@RequestBody UserApp userApp) throws Exception {
-        Optional<UserApp> userAppOptional = userAppRepository.findByUsername(userApp.getUsername());
-        if (userAppOptional.isPresent() && passwordEncoder.matches(userApp.getPassword(), userAppOptional.get().getPassword())) {
-            UserApp foundUser = userAppOptional.get();
-            return ResponseEntity.ok().header(HttpHeaders.SET_COOKIE, jwtService.createAuthenticationToken(foundUser).toString()).body("connected");
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody UserApp userApp) throws Exception {
+        Optional<UserApp> userAppOptional = userAppCache.findByUsername(userApp.getUsername());
+        if (userAppOptional.isEmpty()) {
+            throw new Exception();
         }
-        throw new Exception();
+        UserApp foundUser = userAppOptional.get();
+        return passwordHashingService.matches(userApp.getPassword(), foundUser.getPassword()).thenApplyAsync(matches -> {
+            try {
+                if (!matches) {
+                    throw new Exception();
+                }
+                passwordHashingService.upgradeIfOutdated(foundUser, userApp.getPassword());
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.SET_COOKIE, jwtService.createAuthenticationToken(foundUser).toString())
+                        .header(HttpHeaders.SET_COOKIE, jwtService.createRefreshCookie(foundUser).toString())
+                        .body("connected");
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, persistenceExecutor);
     }
 
     /**
      * Registers a new user with encoded password.
      * Default role is USER if not specified.
+     * The password is hashed on the {@link PasswordHashingService} pool, not on the request thread,
+     * and the user is saved on the application task executor.
      * @param userApp the user registration data
+     * @return future completed once the user is saved
      * @throws Exception if username already exists
      */
     @PostMapping("/auth/register")
     @ResponseBody
-    public void register(@RequestBody UserApp userApp) throws Exception {
-        Optional<UserApp> userAppOptional = userAppRepository.findByUsername(userApp.getUsername());
+    public CompletableFuture<Void> register(@RequestBody UserApp userApp) throws Exception {
+        Optional<UserApp> userAppOptional = userAppCache.findByUsername(userApp.getUsername());
         if (userAppOptional.isEmpty()) {
             Role role = userApp.getRole() != null ? userApp.getRole() : Role.USER;
-            userAppRepository.save(
-                    new UserApp(
-                            userApp.getUsername(),
-                            passwordEncoder.encode(userApp.getPassword()),
-                            role
-                    )
-            );
+            return passwordHashingService.encode(userApp.getPassword()).thenAcceptAsync(encodedPassword ->
+                    userAppRepository.save(
+                            new UserApp(
+                                    userApp.getUsername(),
+                                    encodedPassword,
+                                    role
+                            )
+                    ), persistenceExecutor);
         }else{
             throw new Exception();
         }
     }
 
     /**
-     * Logs out the user by expiring the authentication cookie.
+     * Answers 503 with a Retry-After header when the password hashing pool is saturated,
+     * so that login bursts are shed quickly instead of queuing up.
+     * @param e the rejection
+     * @return ResponseEntity with status 503
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseBody
+    public ResponseEntity<String> hashingSaturated(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Too many authentication requests, please retry");
+    }
+
+    /**
+     * Logs out the user by revoking the current token until it expires, so that a copy of it
+     * cannot be used anymore, and the refresh tokens of the session, then expiring both cookies.
+     * @param token the JWT cookie of the request, if any
+     * @param refreshToken the refresh token cookie of the request, if any
      * @param response the HTTP servlet response
      * @return ResponseEntity with logout confirmation
      */
     @PostMapping("/auth/logout")
     @ResponseBody
-    public ResponseEntity<?> logout(HttpServletResponse response) {
+    public ResponseEntity<?> logout(@CookieValue(name = "${jwt.cookie_name}", required = false) String token,
+                                    @CookieValue(name = "${jwt.refresh-token.cookie-name}", required = false) String refreshToken,
+                                    HttpServletResponse response) {
+        jwtService.logout(token, refreshToken);
         ResponseCookie expiredCookie = ResponseCookie.from(cookieName, "")
                 .httpOnly(true)
                 .path("/")
@@ -148,9 +207,32 @@ public class UserController {
         
         return ResponseEntity.ok()
                 .header(HttpHeaders.SET_COOKIE, expiredCookie.toString())
+                .header(HttpHeaders.SET_COOKIE, JwtService.expiredRefreshCookie().toString())
                 .body("Logged out successfully");
     }
 
+    /**
+     * Logs out the user from every session by invalidating all of their issued tokens,
+     * refresh tokens included, then expires the authentication cookies of the current one.
+     * @param currentUser the authenticated user
+     * @return ResponseEntity with logout confirmation
+     */
+    @PostMapping("/auth/logout-all")
+    @ResponseBody
+    public ResponseEntity<?> logoutAll(@AuthenticationPrincipal UserApp currentUser) {
+        userAppRepository.findById(currentUser.getId()).ifPresent(tokenVersionService::revokeTokens);
+        ResponseCookie expiredCookie = ResponseCookie.from(cookieName, "")
+                .httpOnly(true)
+                .path("/")
+                .maxAge(0)
+                .build();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, expiredCookie.toString())
+                .header(HttpHeaders.SET_COOKIE, JwtService.expiredRefreshCookie().toString())
+                .body("Logged out from all sessions");
+    }
+
     /**
      * Returns the current authentication status and user information.
      * @param currentUser the authenticated user (null if not authenticated)
@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch deletion of job offers.
+ *
+ * @param deleted the number of offers deleted
+ * @param notFound the requested ids that matched no offer
+ */
+public record BatchDeleteResult(int deleted, List<Long> notFound) {
+}
@@ -0,0 +1,53 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistics over all job offers, returned by GET /offers/aggregates.
+ *
+ * @param count the number of offers
+ * @param salary the salary statistics of the offers having a salary
+ * @param companies the companies with the most offers, most offers first
+ * @param companyCount the number of distinct companies
+ * @param owners the users owning the most offers, most offers first
+ * @param ownerCount the number of distinct owners
+ */
+public record OfferAggregates(long count, Salary salary, List<Count> companies, int companyCount,
+                              List<Count> owners, int ownerCount) {
+
+    /**
+     * Number of offers of a company or an owner.
+     *
+     * @param name the company name or the owner's username, null for the offers without one
+     * @param count the number of offers
+     */
+    public record Count(String name, long count) {
+    }
+
+    /**
+     * Salary statistics. Minimum, maximum and average are exact; percentiles are estimated
+     * within the relative accuracy by a {@link com.example.demo.services.LogBucketSketch}.
+     *
+     * @param count the number of offers having a salary
+     * @param min the lowest salary, null without salaries
+     * @param max the highest salary, null without salaries
+     * @param average the average salary, null without salaries
+     * @param percentiles the requested percentiles ("p50", "p99.9", ...), null values without salaries
+     * @param relativeAccuracy the maximum relative error of the percentiles
+     * @param sketch the state of the percentile sketch, for merging the results of several nodes; null unless requested
+     */
+    public record Salary(long count, Double min, Double max, Double average, Map<String, Double> percentiles,
+                         double relativeAccuracy, Sketch sketch) {
+    }
+
+    /**
+     * State of a percentile sketch: merging sketches of the same relative accuracy amounts to summing
+     * the zero counts and the counts of the bins with the same index.
+     *
+     * @param zeroCount the number of salaries that are not positive
+     * @param bins the number of salaries in each logarithmic bucket, by bucket index
+     */
+    public record Sketch(long zeroCount, Map<Integer, Long> bins) {
+    }
+}
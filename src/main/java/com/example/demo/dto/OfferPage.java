@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * One page of job offers returned by keyset pagination.
+ *
+ * @param items the offers of the page, ordered by id
+ * @param nextCursor the cursor to pass to fetch the next page, null on the last page
+ */
+public record OfferPage(List<OfferSummary> items, Long nextCursor) {
+}
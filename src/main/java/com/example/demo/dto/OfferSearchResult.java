@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * One page of job offers matching a search, best matches first.
+ *
+ * @param items the offers of the page
+ * @param total the number of offers matching the search
+ * @param page the index of the page, starting at 0
+ * @param size the requested page size
+ */
+public record OfferSearchResult(List<OfferSummary> items, int total, int page, int size) {
+}
@@ -0,0 +1,32 @@
+package com.example.demo.dto;
+
+/**
+ * Change pushed to the subscribers of the offers stream (GET /offers/stream), sent as a Server-Sent Event
+ * named after its type.
+ *
+ * @param id the event id, increasing by one per event; 0 for heartbeats
+ * @param type {@value #CREATED}, {@value #DELETED}, {@value #RESET} or {@value #HEARTBEAT}
+ * @param data the created or deleted offer, the id of the last event for a reset, null for a heartbeat
+ */
+public record OfferStreamEvent(long id, String type, Object data) {
+
+    /** An offer was created: add it to the list */
+    public static final String CREATED = "created";
+    /** An offer was deleted: remove it from the list */
+    public static final String DELETED = "deleted";
+    /** Events were missed and cannot be replayed: reload the whole list */
+    public static final String RESET = "reset";
+    /** Nothing happened: keeps idle connections open through proxies, sent as an SSE comment */
+    public static final String HEARTBEAT = "heartbeat";
+
+    /** The single heartbeat instance */
+    public static final OfferStreamEvent HEARTBEAT_EVENT = new OfferStreamEvent(0, HEARTBEAT, null);
+
+    /**
+     * Tells whether this event is a heartbeat, written as a comment rather than as an event.
+     * @return true for a heartbeat
+     */
+    public boolean isHeartbeat() {
+        return HEARTBEAT.equals(type);
+    }
+}
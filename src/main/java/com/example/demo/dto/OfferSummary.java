@@ -0,0 +1,53 @@
+package com.example.demo.dto;
+
+import com.example.demo.models.JobOffer;
+import com.example.demo.models.UserApp;
+
+/**
+ * Read-only projection of a job offer as exposed by the offers API.
+ * Carries the offer fields and only the id and username of its owner,
+ * so it can be loaded in a single query without hydrating any entity.
+ *
+ * @param id the offer id
+ * @param title the job title
+ * @param description the job description
+ * @param company the company offering the job
+ * @param salary the offered salary
+ * @param owner the user who created the offer
+ */
+public record OfferSummary(Long id, String title, String description, String company, Double salary, OwnerSummary owner) {
+
+    /**
+     * Constructor used by JPQL constructor expressions, which cannot build the nested owner themselves.
+     * @param id the offer id
+     * @param title the job title
+     * @param description the job description
+     * @param company the company offering the job
+     * @param salary the offered salary
+     * @param ownerId the owner's id, null if the offer has no owner
+     * @param ownerUsername the owner's username
+     */
+    public OfferSummary(Long id, String title, String description, String company, Double salary,
+                        Integer ownerId, String ownerUsername) {
+        this(id, title, description, company, salary, ownerId == null ? null : new OwnerSummary(ownerId, ownerUsername));
+    }
+
+    /**
+     * Builds the summary of a job offer entity.
+     * @param offer the job offer
+     * @return the summary of the offer
+     */
+    public static OfferSummary of(JobOffer offer) {
+        UserApp owner = offer.getOwner();
+        return new OfferSummary(offer.getId(), offer.getTitle(), offer.getDescription(), offer.getCompany(),
+                offer.getSalary(), owner != null ? owner.getId() : null, owner != null ? owner.getUsername() : null);
+    }
+
+    /**
+     * Public view of an offer owner.
+     * @param id the owner's id
+     * @param username the owner's username
+     */
+    public record OwnerSummary(Integer id, String username) {
+    }
+}
@@ -4,22 +4,32 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity representing a job offer in the application.
  * Stores job details and associates each offer with a user owner.
  * Uses Lombok annotations for automatic getter/setter generation.
+ * Kept in the "offers" second-level cache region, with the owner's id only: the owner comes from the "users" region.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Table(name = "job_offer")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "offers")
 public class JobOffer {
 
-    /** Primary key for the job offer entity */
+    /**
+     * Primary key for the job offer entity.
+     * Drawn from a pooled sequence (one round-trip per 50 ids) so that Hibernate can batch inserts,
+     * which IDENTITY columns prevent.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_offer_seq")
+    @SequenceGenerator(name = "job_offer_seq", sequenceName = "job_offer_seq", allocationSize = 50)
     private Long id;
     
     /** Job title */
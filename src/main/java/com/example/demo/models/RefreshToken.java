@@ -0,0 +1,73 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entity representing a refresh token issued to a user.
+ * Only a hash of the token is stored. Each use rotates the token: the used one is marked rotated
+ * and a new one of the same family (login session) is issued.
+ * Uses Lombok annotations for automatic getter/setter generation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "refresh_token_family", columnList = "familyId"),
+        @Index(name = "refresh_token_expires_at", columnList = "expiresAt")
+})
+public class RefreshToken {
+
+    /** Primary key for the refresh token entity */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Base64url SHA-256 hash of the token, the token itself is never stored */
+    @Column(unique = true, nullable = false, length = 64)
+    private String tokenHash;
+
+    /** Id shared by all the tokens rotated from the same login */
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    /** User the token was issued to */
+    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @JoinColumn(name = "user_id")
+    private UserApp user;
+
+    /** Token version of the user at issue time; the token is rejected once the user's version changes */
+    @Column(nullable = false)
+    private int tokenVersion;
+
+    /** Expiration of the token */
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    /** When the token was exchanged for a new one, null while it is the current token of its family */
+    private Instant rotatedAt;
+
+    /** Whether the token's family has been revoked, on logout or after a reuse */
+    @Column(nullable = false)
+    private boolean revoked;
+
+    /**
+     * Constructor for creating a current refresh token.
+     * @param tokenHash the hash of the token
+     * @param familyId the id of the token's family
+     * @param user the user the token is issued to
+     * @param expiresAt the expiration of the token
+     */
+    public RefreshToken(String tokenHash, String familyId, UserApp user, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.user = user;
+        this.tokenVersion = user.getTokenVersion();
+        this.expiresAt = expiresAt;
+    }
+}
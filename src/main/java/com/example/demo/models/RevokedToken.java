@@ -0,0 +1,29 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entity representing a revoked JWT token, kept until the token expires.
+ * Used by {@link com.example.demo.services.DatabaseRevocationStore} to share logouts between nodes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "revoked_token", indexes = @Index(name = "revoked_token_expires_at", columnList = "expiresAt"))
+public class RevokedToken {
+
+    /** The token's id (its "jti" claim) */
+    @Id
+    @Column(length = 64)
+    private String tokenId;
+
+    /** The token's expiration, after which the entry is purged */
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -1,21 +1,28 @@
 package com.example.demo.models;
 
 
+import com.example.demo.services.UserAppCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity representing a user in the application.
  * Stores user credentials and role information with JPA persistence.
  * Uses Lombok annotations for automatic getter/setter generation.
+ * Kept in the "users" second-level cache region, which also resolves the owner of cached job offers.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
 @Table(name = "user_app")
+@EntityListeners(UserAppCacheInvalidator.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class UserApp {
 
     /** Primary key for the user entity */
@@ -34,6 +41,10 @@ public class UserApp {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    /** Version embedded in issued tokens; incrementing it invalidates all of the user's tokens */
+    @Column(nullable = false)
+    private int tokenVersion;
+
 
     /**
      * Constructor for creating a user with specified username, password, and role.
@@ -0,0 +1,40 @@
+package com.example.demo.reactive;
+
+import com.example.demo.services.JwtService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Verifies the JWT tokens extracted by {@link JwtServerAuthenticationConverter}, with exactly the same rules
+ * as the servlet filter ({@link JwtService#authenticate(String)}: verified-token cache, stateless mode, token versions).
+ * Verification may have to load the user from the database, so it runs on the bounded elastic scheduler
+ * instead of the event loop.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class JwtReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    @Autowired
+    JwtService jwtService;
+
+    /**
+     * Verifies the token held as credentials of the authentication request.
+     * @param authentication the authentication request built from the JWT cookie
+     * @return the authentication of the token's user
+     */
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String token = (String) authentication.getCredentials();
+        return Mono.fromCallable(() -> (Authentication) jwtService.authenticate(token))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorMap(e -> !(e instanceof AuthenticationException),
+                        e -> new BadCredentialsException("Invalid JWT token", e));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpCookie;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.security.web.server.authentication.ServerAuthenticationConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of {@link com.example.demo.services.JwtService#extractToken}:
+ * turns the JWT cookie of a request into a not yet verified authentication request,
+ * which {@link JwtReactiveAuthenticationManager} then verifies.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class JwtServerAuthenticationConverter implements ServerAuthenticationConverter {
+
+    @Value("${jwt.cookie_name}")
+    private String cookieName;
+
+    /**
+     * Extracts the raw JWT token from the request cookies, or takes the one just issued by
+     * {@link ReactiveTokenRefreshFilter}.
+     * @param exchange the current exchange
+     * @return an authentication request holding the token as credentials, or empty without JWT cookie
+     */
+    @Override
+    public Mono<Authentication> convert(ServerWebExchange exchange) {
+        String refreshedToken = exchange.getAttribute(ReactiveTokenRefreshFilter.REFRESHED_TOKEN_ATTRIBUTE);
+        if (refreshedToken != null) {
+            return Mono.just(new PreAuthenticatedAuthenticationToken(null, refreshedToken));
+        }
+        HttpCookie cookie = exchange.getRequest().getCookies().getFirst(cookieName);
+        if (cookie == null || cookie.getValue().isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.just(new PreAuthenticatedAuthenticationToken(null, cookie.getValue()));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.reactive;
+
+import com.example.demo.services.AuthRateLimiter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reactive counterpart of {@link com.example.demo.services.AuthRateLimitFilter}:
+ * throttles POST /auth/login and /auth/register per client IP and per username with the shared {@link AuthRateLimiter},
+ * answering 429 Too Many Requests with a Retry-After header.
+ */
+public class ReactiveAuthRateLimitFilter implements WebFilter {
+
+    private final AuthRateLimiter authRateLimiter;
+
+    /**
+     * Creates the filter.
+     * @param authRateLimiter the token buckets shared with the servlet stack
+     */
+    public ReactiveAuthRateLimitFilter(AuthRateLimiter authRateLimiter) {
+        this.authRateLimiter = authRateLimiter;
+    }
+
+    /**
+     * Takes a token from the client IP bucket and from the username bucket, or rejects the request.
+     * The body is buffered (up to the configured maximum size) so that the handler can still read it.
+     * @param exchange the current exchange
+     * @param chain the rest of the filter chain
+     * @return completion of the request processing
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!authRateLimiter.appliesTo(request.getMethod().name(), request.getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        long wait = authRateLimiter.acquireForAddress(remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress() : "unknown");
+        if (wait > 0) {
+            return reject(exchange.getResponse(), wait);
+        }
+
+        return DataBufferUtils.join(request.getBody(), authRateLimiter.getMaxBodySize())
+                .map(buffer -> {
+                    byte[] body = new byte[buffer.readableByteCount()];
+                    buffer.read(body);
+                    DataBufferUtils.release(buffer);
+                    return body;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> {
+                    long usernameWait = authRateLimiter.acquireForBody(body);
+                    if (usernameWait == AuthRateLimiter.AMBIGUOUS_USERNAME) {
+                        ServerHttpResponse response = exchange.getResponse();
+                        response.setStatusCode(HttpStatus.BAD_REQUEST);
+                        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+                        return response.writeWith(Mono.just(response.bufferFactory()
+                                .wrap(AuthRateLimiter.AMBIGUOUS_USERNAME_MESSAGE.getBytes(StandardCharsets.UTF_8))));
+                    }
+                    if (usernameWait > 0) {
+                        return reject(exchange.getResponse(), usernameWait);
+                    }
+                    ServerHttpRequest cachedBodyRequest = new ServerHttpRequestDecorator(request) {
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body));
+                        }
+                    };
+                    return chain.filter(exchange.mutate().request(cachedBodyRequest).build());
+                })
+                .onErrorResume(DataBufferLimitException.class, e -> {
+                    exchange.getResponse().setStatusCode(HttpStatus.PAYLOAD_TOO_LARGE);
+                    return exchange.getResponse().setComplete();
+                });
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, long waitNanos) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(AuthRateLimiter.retryAfterSeconds(waitNanos)));
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        return response.writeWith(Mono.just(response.bufferFactory()
+                .wrap(AuthRateLimiter.REJECTION_MESSAGE.getBytes(StandardCharsets.UTF_8))));
+    }
+}
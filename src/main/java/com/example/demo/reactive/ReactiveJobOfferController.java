@@ -0,0 +1,317 @@
+package com.example.demo.reactive;
+
+import com.example.demo.controller.JobOfferController;
+import com.example.demo.dto.BatchDeleteResult;
+import com.example.demo.dto.OfferSearchResult;
+import com.example.demo.dto.OfferStreamEvent;
+import com.example.demo.dto.OfferSummary;
+import com.example.demo.models.JobOffer;
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.JobOfferRepository;
+import com.example.demo.services.OfferAggregator;
+import com.example.demo.services.OfferBatchService;
+import com.example.demo.services.OfferExportService;
+import com.example.demo.services.OfferSearchIndex;
+import com.example.demo.services.OfferStreamService;
+import com.example.demo.services.OffersChangedEvent;
+import com.example.demo.services.OffersSnapshot;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reactive counterpart of {@link JobOfferController}, with the same endpoints and responses
+ * (the HTML page of GET /offers is routed by {@link ReactiveWebConfig#offersPageRoute()}).
+ * Snapshot hits and searches are answered on the event loop; everything that touches the database
+ * runs on the bounded elastic scheduler.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/offers")
+public class ReactiveJobOfferController {
+
+    @Autowired
+    private JobOfferRepository jobOfferRepository;
+
+    @Autowired
+    private OfferExportService offerExportService;
+
+    @Autowired
+    private OffersSnapshot offersSnapshot;
+
+    @Autowired
+    private OfferSearchIndex offerSearchIndex;
+
+    @Autowired
+    private OfferAggregator offerAggregator;
+
+    @Autowired
+    private OfferBatchService offerBatchService;
+
+    @Autowired
+    private OfferStreamService offerStreamService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${offers.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    /**
+     * Retrieves one page of JSON offers, ordered by id, from the {@link OffersSnapshot}.
+     * A matching If-None-Match is answered with 304 Not Modified.
+     * @param exchange the current exchange, used for the conditional GET handling
+     * @param cursor the id after which the page starts, absent for the first page
+     * @param limit the maximum number of offers in the page
+     * @return ResponseEntity with a page of job offers, or empty when the client's copy is still current
+     */
+    @GetMapping
+    @ResponseBody
+    public Mono<ResponseEntity<byte[]>> getOffers(ServerWebExchange exchange,
+                                                  @RequestParam(required = false) Long cursor,
+                                                  @RequestParam(defaultValue = "" + JobOfferController.DEFAULT_PAGE_SIZE) int limit) {
+        long pageCursor = cursor != null ? cursor : 0L;
+        int pageSize = Math.max(1, Math.min(limit, JobOfferController.MAX_PAGE_SIZE));
+        return Mono.justOrEmpty(offersSnapshot.getPageIfPresent(pageCursor, pageSize))
+                .switchIfEmpty(Mono.fromCallable(() -> offersSnapshot.getPage(pageCursor, pageSize,
+                                () -> jobOfferRepository.findPageAfter(pageCursor, pageSize)))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(page -> {
+                    List<String> acceptEncoding = exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING);
+                    boolean gzip = OffersSnapshot.acceptsGzip(String.join(",", acceptEncoding));
+                    if (exchange.checkNotModified(gzip ? page.gzipEtag() : page.etag())) {
+                        return Mono.empty();
+                    }
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .cacheControl(CacheControl.noCache())
+                            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+                    if (gzip) {
+                        return Mono.just(response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(page.gzip()));
+                    }
+                    return Mono.just(response.body(page.json()));
+                });
+    }
+
+    /**
+     * Searches job offers by text and salary range, best matches first, from the in-memory {@link OfferSearchIndex}.
+     * @param q words to look for in the title, company and description (prefixes match too)
+     * @param minSalary the minimum salary, inclusive
+     * @param maxSalary the maximum salary, inclusive
+     * @param page the index of the page, starting at 0
+     * @param size the page size
+     * @return ResponseEntity with the requested page of matching offers
+     */
+    @GetMapping("/search")
+    @ResponseBody
+    public ResponseEntity<OfferSearchResult> searchOffers(@RequestParam(defaultValue = "") String q,
+                                                         @RequestParam(required = false) Double minSalary,
+                                                         @RequestParam(required = false) Double maxSalary,
+                                                         @RequestParam(defaultValue = "0") int page,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(offerSearchIndex.search(q, minSalary, maxSalary,
+                Math.max(0, page), Math.max(1, Math.min(size, JobOfferController.MAX_SEARCH_PAGE_SIZE))));
+    }
+
+    /**
+     * Returns statistics over all offers from the in-memory {@link OfferAggregator}.
+     * Answered on the event loop, as it never blocks.
+     * @param top the number of companies and owners to return
+     * @param percentiles the salary percentiles to estimate, between 0 and 100
+     * @param sketch whether to include the percentile sketch, for merging with the aggregates of other nodes
+     * @return ResponseEntity with the aggregates, or 400 if a percentile is out of range
+     */
+    @GetMapping("/aggregates")
+    @ResponseBody
+    public ResponseEntity<?> getAggregates(@RequestParam(defaultValue = "10") int top,
+                                           @RequestParam(defaultValue = "50,90,95,99") List<Double> percentiles,
+                                           @RequestParam(defaultValue = "false") boolean sketch) {
+        if (percentiles.stream().anyMatch(percentile -> !(percentile >= 0 && percentile <= 100))) {
+            return ResponseEntity.badRequest().body("Percentiles must be between 0 and 100");
+        }
+        return ResponseEntity.ok(offerAggregator.getAggregates(
+                Math.max(0, Math.min(top, JobOfferController.MAX_AGGREGATE_TOP)), percentiles, sketch));
+    }
+
+    /**
+     * Pushes the offers created and deleted from now on as Server-Sent Events, see {@link OfferStreamService}.
+     * Each subscriber gets a bounded sink drained as the connection accepts writes; a full sink evicts the subscriber.
+     * @param lastEventId the id of the last event received, sent by reconnecting browsers
+     * @return the events
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public Flux<ServerSentEvent<Object>> streamOffers(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return Flux.defer(() -> {
+            Sinks.Many<OfferStreamEvent> sink = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<OfferStreamEvent>get(offerStreamService.getBufferSize()).get());
+            OfferStreamService.Subscriber subscriber = new OfferStreamService.Subscriber() {
+                @Override
+                public boolean offer(OfferStreamEvent event) {
+                    return sink.tryEmitNext(event).isSuccess();
+                }
+
+                @Override
+                public void close() {
+                    sink.tryEmitComplete();
+                }
+            };
+            offerStreamService.subscribe(lastEventId, subscriber);
+            return sink.asFlux().doFinally(signal -> offerStreamService.unsubscribe(subscriber));
+        }).map(event -> event.isHeartbeat()
+                ? ServerSentEvent.builder().comment(event.type()).build()
+                : ServerSentEvent.builder(event.data()).id(Long.toString(event.id())).event(event.type()).build());
+    }
+
+    /**
+     * Streams every job offer to the response body, with constant memory usage.
+     * The export writes to a blocking stream on the bounded elastic scheduler, which is drained with back-pressure.
+     * @param format "ndjson" for JSON Lines (default) or "json" for a single JSON array
+     * @param response the response written to
+     * @return completion of the export
+     */
+    @GetMapping("/export")
+    public Mono<Void> exportOffers(@RequestParam(defaultValue = "ndjson") String format, ServerHttpResponse response) {
+        boolean jsonLines = !"json".equals(format);
+        response.getHeaders().setContentType(jsonLines
+                ? MediaType.parseMediaType("application/x-ndjson;charset=UTF-8")
+                : MediaType.APPLICATION_JSON);
+        Publisher<DataBuffer> body = DataBufferUtils.outputStreamPublisher(outputStream -> {
+            try {
+                offerExportService.export(outputStream, jsonLines);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, response.bufferFactory(), task -> Schedulers.boundedElastic().schedule(task));
+        return response.writeWith(body);
+    }
+
+    /**
+     * Creates a new job offer for the authenticated user.
+     * @param jobOffer the job offer to create
+     * @param currentUser the authenticated user
+     * @return ResponseEntity with the created job offer
+     */
+    @PostMapping
+    @ResponseBody
+    public Mono<ResponseEntity<JobOffer>> createOffer(@RequestBody JobOffer jobOffer, @AuthenticationPrincipal UserApp currentUser) {
+        return Mono.fromCallable(() -> {
+            jobOffer.setOwner(currentUser);
+            JobOffer savedOffer = jobOfferRepository.save(jobOffer);
+            eventPublisher.publishEvent(OffersChangedEvent.created(List.of(OfferSummary.of(savedOffer))));
+            return ResponseEntity.ok(savedOffer);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Creates several job offers for the authenticated user in one request and one transaction.
+     * @param jobOffers the job offers to create
+     * @param currentUser the authenticated user
+     * @return ResponseEntity with the created job offers, or 400 if the batch is empty or too large
+     */
+    @PostMapping("/batch")
+    @ResponseBody
+    public Mono<ResponseEntity<?>> createOffers(@RequestBody List<JobOffer> jobOffers, @AuthenticationPrincipal UserApp currentUser) {
+        if (jobOffers.isEmpty() || jobOffers.size() > maxBatchSize) {
+            return Mono.just(ResponseEntity.badRequest().body("A batch must contain between 1 and " + maxBatchSize + " job offers"));
+        }
+        return Mono.<ResponseEntity<?>>fromCallable(() -> {
+            List<OfferSummary> savedOffers = offerBatchService.createAll(jobOffers, currentUser);
+            eventPublisher.publishEvent(OffersChangedEvent.created(savedOffers));
+            return ResponseEntity.ok(savedOffers);
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Deletes several job offers by ID in one request and one transaction.
+     * Users can only delete their own job offers unless they have ADMIN role;
+     * if any of the offers belongs to someone else, none is deleted.
+     * @param ids the IDs of the job offers to delete
+     * @param currentUser the authenticated user
+     * @param authentication the authentication of the current user
+     * @return ResponseEntity with the deletion outcome or error status
+     */
+    @DeleteMapping("/batch")
+    @ResponseBody
+    public Mono<ResponseEntity<?>> deleteOffers(@RequestBody List<Long> ids, @AuthenticationPrincipal UserApp currentUser,
+                                                Authentication authentication) {
+        if (ids.isEmpty() || ids.size() > maxBatchSize) {
+            return Mono.just(ResponseEntity.badRequest().body("A batch must contain between 1 and " + maxBatchSize + " job offer ids"));
+        }
+        boolean isAdmin = isAdmin(authentication);
+        return Mono.<ResponseEntity<?>>fromCallable(() -> {
+            List<OfferSummary> deletedOffers;
+            try {
+                deletedOffers = offerBatchService.deleteAll(ids, currentUser, isAdmin);
+            } catch (AccessDeniedException e) {
+                return ResponseEntity.status(403).body(e.getMessage());
+            }
+            eventPublisher.publishEvent(OffersChangedEvent.deleted(deletedOffers));
+
+            Set<Long> deletedIds = new HashSet<>();
+            deletedOffers.forEach(offer -> deletedIds.add(offer.id()));
+            List<Long> notFound = ids.stream().filter(id -> !deletedIds.contains(id)).distinct().toList();
+            return ResponseEntity.ok(new BatchDeleteResult(deletedOffers.size(), notFound));
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Deletes a job offer by ID. Users can only delete their own job offers
+     * unless they have ADMIN role.
+     * @param id the ID of the job offer to delete
+     * @param currentUser the authenticated user
+     * @param authentication the authentication of the current user
+     * @return ResponseEntity with success message or error status
+     */
+    @DeleteMapping("/{id}")
+    @ResponseBody
+    public Mono<ResponseEntity<?>> deleteOffer(@PathVariable Long id, @AuthenticationPrincipal UserApp currentUser,
+                                               Authentication authentication) {
+        boolean isAdmin = isAdmin(authentication);
+        return Mono.<ResponseEntity<?>>fromCallable(() -> {
+            JobOffer offer = jobOfferRepository.findById(id).orElse(null);
+            if (offer == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (!isAdmin && !offer.getOwner().getId().equals(currentUser.getId())) {
+                return ResponseEntity.status(403).body("You can only delete your own job offers");
+            }
+
+            jobOfferRepository.delete(offer);
+            eventPublisher.publishEvent(OffersChangedEvent.deleted(List.of(OfferSummary.of(offer))));
+            return ResponseEntity.ok("Job offer deleted successfully");
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_ADMIN"));
+    }
+}
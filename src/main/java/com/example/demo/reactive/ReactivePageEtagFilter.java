@@ -0,0 +1,70 @@
+package com.example.demo.reactive;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+/**
+ * Reactive counterpart of the ShallowEtagHeaderFilter that {@link com.example.demo.WebConfig} applies to the pages:
+ * the HTML of the given pages is buffered, gets a weak ETag computed from its content and must be revalidated
+ * on every load; a matching If-None-Match is answered with 304 Not Modified and no body.
+ * Other responses of these paths (JSON offers, redirects) are passed through untouched.
+ */
+public class ReactivePageEtagFilter implements WebFilter {
+
+    private final Set<String> paths;
+
+    /**
+     * Creates the filter.
+     * @param paths the paths of the pages
+     */
+    public ReactivePageEtagFilter(Set<String> paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * Decorates the response of the pages, then continues the chain.
+     * @param exchange the current exchange
+     * @param chain the rest of the filter chain
+     * @return completion of the request processing
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (exchange.getRequest().getMethod() != HttpMethod.GET
+                || !paths.contains(exchange.getRequest().getPath().pathWithinApplication().value())) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                MediaType contentType = getHeaders().getContentType();
+                if (contentType == null || !MediaType.TEXT_HTML.isCompatibleWith(contentType)
+                        || (getStatusCode() != null && !getStatusCode().is2xxSuccessful())) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(body).flatMap(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    getHeaders().setCacheControl(CacheControl.noCache());
+                    if (exchange.checkNotModified("W/\"0" + DigestUtils.md5DigestAsHex(bytes) + "\"")) {
+                        return getDelegate().setComplete();
+                    }
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+}
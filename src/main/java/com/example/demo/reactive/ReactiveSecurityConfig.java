@@ -0,0 +1,114 @@
+package com.example.demo.reactive;
+
+import com.example.demo.services.AuthRateLimiter;
+import com.example.demo.services.JwtService;
+import com.example.demo.services.RefreshTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.header.XFrameOptionsServerHttpHeadersWriter;
+import org.springframework.security.web.server.savedrequest.NoOpServerRequestCache;
+
+/**
+ * Spring Security configuration of the reactive (WebFlux) variant of the application,
+ * started with the "reactive" profile instead of the default servlet stack.
+ * Mirrors {@link com.example.demo.SecurityConfig#filterChain}: same cookie-based JWT authentication,
+ * same login throttling and same authorization rules.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Autowired
+    private JwtServerAuthenticationConverter jwtServerAuthenticationConverter;
+
+    @Autowired
+    private JwtReactiveAuthenticationManager jwtReactiveAuthenticationManager;
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Value("${jwt.cookie_name}")
+    private String cookieName;
+
+    @Value("${jwt.refresh-token.cookie-name}")
+    private String refreshCookieName;
+
+    /**
+     * Configures the reactive security filter chain with JWT authentication and authorization rules.
+     * Security configuration:
+     * - Disables CSRF protection (stateless JWT authentication), sessions and saved requests
+     * - Public endpoints: /, /login, /register, GET /assets/**, /hello/public, /auth/*, GET /offers, GET /offers/search, GET /offers/aggregates, GET /offers/stream
+     * - Authenticated endpoints: POST/DELETE /offers (single and batch), /add-offer, /hello/private, /auth/logout-all
+     * - Admin-only endpoints: /hello/private-admin, /actuator/** (except /actuator/health)
+     * - Throttles POST /auth/login and /auth/register per client IP and per username ahead of the JWT authentication
+     * - A missing, invalid or expiring JWT cookie is re-issued from the refresh token cookie before the authentication
+     * - An invalid JWT cookie is expired and the request goes on unauthenticated; access denied answers 403
+     * There is no H2 console in this variant, it needs the servlet stack.
+     *
+     * @param http the ServerHttpSecurity configuration object
+     * @return configured SecurityWebFilterChain
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        AuthenticationWebFilter jwtFilter = new AuthenticationWebFilter(jwtReactiveAuthenticationManager);
+        jwtFilter.setServerAuthenticationConverter(jwtServerAuthenticationConverter);
+        jwtFilter.setAuthenticationFailureHandler((webFilterExchange, exception) -> {
+            webFilterExchange.getExchange().getResponse().addCookie(ResponseCookie.from(cookieName, "")
+                    .httpOnly(true)
+                    .path("/")
+                    .maxAge(0)
+                    .build());
+            return webFilterExchange.getChain().filter(webFilterExchange.getExchange());
+        });
+
+        return http
+                .csrf(csrf -> csrf.disable())
+                .httpBasic(httpBasic -> httpBasic.disable())
+                .formLogin(formLogin -> formLogin.disable())
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .requestCache(requestCache -> requestCache.requestCache(NoOpServerRequestCache.getInstance()))
+                .headers(headers -> headers
+                        .frameOptions(frameOptions -> frameOptions.mode(XFrameOptionsServerHttpHeadersWriter.Mode.SAMEORIGIN)))
+                .exceptionHandling(exceptionHandling -> exceptionHandling
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/", "/login", "/register").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/assets/**").permitAll()
+                        .pathMatchers("/hello/public").permitAll()
+                        .pathMatchers("/auth/login", "/auth/register", "/auth/status", "/auth/logout").permitAll()
+                        .pathMatchers(HttpMethod.GET, "/offers", "/offers/search", "/offers/aggregates", "/offers/stream").permitAll()
+                        .pathMatchers(HttpMethod.POST, "/offers").authenticated()
+                        .pathMatchers(HttpMethod.DELETE, "/offers/**").authenticated()
+                        .pathMatchers(HttpMethod.GET, "/add-offer").authenticated()
+                        .pathMatchers("/hello/private-admin").hasRole("ADMIN")
+                        .pathMatchers("/actuator/health").permitAll()
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
+                        .anyExchange().authenticated()
+                )
+                .addFilterAt(new ReactiveAuthRateLimitFilter(authRateLimiter), SecurityWebFiltersOrder.FIRST)
+                .addFilterBefore(new ReactiveTokenRefreshFilter(jwtService, refreshTokenService, cookieName, refreshCookieName),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
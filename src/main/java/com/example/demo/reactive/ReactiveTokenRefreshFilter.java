@@ -0,0 +1,82 @@
+package com.example.demo.reactive;
+
+import com.example.demo.services.JwtService;
+import com.example.demo.services.RefreshTokenService;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+/**
+ * Reactive counterpart of the refresh done by {@link JwtService#doFilterInternal}: when the access token is missing,
+ * invalid or about to expire and a refresh token cookie is present, new access and refresh token cookies are issued
+ * and the new access token is handed to {@link JwtServerAuthenticationConverter} for this request.
+ * The expiry check is done in memory; only the refresh itself runs on the bounded elastic scheduler.
+ */
+public class ReactiveTokenRefreshFilter implements WebFilter {
+
+    /** Exchange attribute holding the access token issued by a refresh */
+    public static final String REFRESHED_TOKEN_ATTRIBUTE = ReactiveTokenRefreshFilter.class.getName() + ".TOKEN";
+
+    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final String cookieName;
+    private final String refreshCookieName;
+
+    /**
+     * Creates the filter.
+     * @param jwtService the service checking the access tokens
+     * @param refreshTokenService the service rotating the refresh tokens
+     * @param cookieName the name of the access token cookie
+     * @param refreshCookieName the name of the refresh token cookie
+     */
+    public ReactiveTokenRefreshFilter(JwtService jwtService, RefreshTokenService refreshTokenService,
+                                      String cookieName, String refreshCookieName) {
+        this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.cookieName = cookieName;
+        this.refreshCookieName = refreshCookieName;
+    }
+
+    /**
+     * Refreshes the tokens when needed, then continues the chain.
+     * @param exchange the current exchange
+     * @param chain the rest of the filter chain
+     * @return completion of the request processing
+     */
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpCookie refreshCookie = exchange.getRequest().getCookies().getFirst(refreshCookieName);
+        if (refreshCookie == null || refreshCookie.getValue().isEmpty()) {
+            return chain.filter(exchange);
+        }
+        HttpCookie cookie = exchange.getRequest().getCookies().getFirst(cookieName);
+        if (!jwtService.needsRefresh(cookie != null && !cookie.getValue().isEmpty() ? cookie.getValue() : null)) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        return Mono.fromCallable(() -> Optional.of(refreshTokenService.refresh(refreshCookie.getValue())))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(AuthenticationException.class, e -> {
+                    response.addCookie(JwtService.expiredRefreshCookie());
+                    return Mono.just(Optional.empty());
+                })
+                // e.g. the database is unavailable: keep the cookies and use the access token while it lasts
+                .onErrorResume(e -> Mono.just(Optional.empty()))
+                .flatMap(tokens -> {
+                    tokens.ifPresent(pair -> {
+                        response.addCookie(JwtService.accessCookie(pair.accessToken()));
+                        response.addCookie(JwtService.refreshCookie(pair.refreshToken()));
+                        exchange.getAttributes().put(REFRESHED_TOKEN_ATTRIBUTE, pair.accessToken());
+                    });
+                    return chain.filter(exchange);
+                });
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.demo.reactive;
+
+import com.example.demo.models.Role;
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.UserAppRepository;
+import com.example.demo.services.JwtService;
+import com.example.demo.services.PasswordHashingService;
+import com.example.demo.services.TokenVersionService;
+import com.example.demo.services.UserAppCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reactive counterpart of {@link com.example.demo.controller.UserController}, with the same endpoints and responses.
+ * Password hashing stays on the {@link PasswordHashingService} pool and database access runs on the
+ * bounded elastic scheduler, so the event loop never blocks.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    @Autowired
+    JwtService jwtService;
+    @Autowired
+    UserAppRepository userAppRepository;
+    @Autowired
+    PasswordHashingService passwordHashingService;
+    @Autowired
+    TokenVersionService tokenVersionService;
+    @Autowired
+    UserAppCache userAppCache;
+
+    @Value("${jwt.cookie_name}")
+    private String cookieName;
+
+    /**
+     * Redirects the root path to the offers page
+     * @return redirect to /offers
+     */
+    @GetMapping("/")
+    public String index() {
+        return "redirect:/offers";
+    }
+
+    /**
+     * Displays the add offer page.
+     * @return the add-offer template
+     */
+    @GetMapping("/add-offer")
+    public String addOfferPage() {
+        return "add-offer";
+    }
+
+    /**
+     * Displays the login page for browser requests.
+     * @param accept the Accept header of the request
+     * @return the login template, or a redirect to the login page
+     */
+    @GetMapping("/login")
+    public String loginPage(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return accept != null && accept.contains("text/html") ? "login" : "redirect:/login";
+    }
+
+    /**
+     * Displays the registration page for browser requests.
+     * @param accept the Accept header of the request
+     * @return the register template, or a redirect to the registration page
+     */
+    @GetMapping("/register")
+    public String registerPage(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return accept != null && accept.contains("text/html") ? "register" : "redirect:/register";
+    }
+
+    /**
+     * Authenticates a user and returns a short-lived JWT access token and a refresh token in cookies.
+     * A stored hash using an outdated algorithm or work factor is re-encoded in the background,
+     * and the refresh token is stored on the bounded elastic scheduler rather than on the hashing pool.
+     * @param userApp the user credentials
+     * @return ResponseEntity with authentication token cookie, or 403 if the credentials are wrong
+     */
+    @PostMapping("/auth/login")
+    @ResponseBody
+    public Mono<ResponseEntity<String>> login(@RequestBody UserApp userApp) {
+        return Mono.fromCallable(() -> userAppCache.findByUsername(userApp.getUsername()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(userAppOptional -> Mono.justOrEmpty(userAppOptional))
+                .flatMap(foundUser -> Mono.fromFuture(() -> passwordHashingService.matches(userApp.getPassword(), foundUser.getPassword()))
+                        .publishOn(Schedulers.boundedElastic())
+                        .filter(Boolean::booleanValue)
+                        .flatMap(matches -> Mono.fromCallable(() -> {
+                            passwordHashingService.upgradeIfOutdated(foundUser, userApp.getPassword());
+                            return ResponseEntity.ok()
+                                    .header(HttpHeaders.SET_COOKIE, jwtService.createAuthenticationToken(foundUser).toString())
+                                    .header(HttpHeaders.SET_COOKIE, jwtService.createRefreshCookie(foundUser).toString())
+                                    .body("connected");
+                        })))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.FORBIDDEN).build());
+    }
+
+    /**
+     * Registers a new user with encoded password.
+     * Default role is USER if not specified.
+     * @param userApp the user registration data
+     * @return ResponseEntity with status 200 once the user is saved, or 403 if the username already exists
+     */
+    @PostMapping("/auth/register")
+    @ResponseBody
+    public Mono<ResponseEntity<Void>> register(@RequestBody UserApp userApp) {
+        Role role = userApp.getRole() != null ? userApp.getRole() : Role.USER;
+        return Mono.fromCallable(() -> userAppCache.findByUsername(userApp.getUsername()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(userAppOptional -> {
+                    if (userAppOptional.isPresent()) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).<Void>build());
+                    }
+                    return Mono.fromFuture(() -> passwordHashingService.encode(userApp.getPassword()))
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(encodedPassword -> {
+                                userAppRepository.save(new UserApp(userApp.getUsername(), encodedPassword, role));
+                                return ResponseEntity.ok().<Void>build();
+                            });
+                });
+    }
+
+    /**
+     * Answers 503 with a Retry-After header when the password hashing pool is saturated,
+     * so that login bursts are shed quickly instead of queuing up.
+     * @param e the rejection
+     * @return ResponseEntity with status 503
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    @ResponseBody
+    public ResponseEntity<String> hashingSaturated(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Too many authentication requests, please retry");
+    }
+
+    /**
+     * Logs out the user by revoking the current token until it expires and the refresh tokens of the session,
+     * and expiring both cookies.
+     * @param token the JWT cookie of the request, if any
+     * @param refreshToken the refresh token cookie of the request, if any
+     * @return ResponseEntity with logout confirmation
+     */
+    @PostMapping("/auth/logout")
+    @ResponseBody
+    public Mono<ResponseEntity<String>> logout(@CookieValue(name = "${jwt.cookie_name}", required = false) String token,
+                                               @CookieValue(name = "${jwt.refresh-token.cookie-name}", required = false) String refreshToken) {
+        return Mono.fromRunnable(() -> jwtService.logout(token, refreshToken))
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(ResponseEntity.ok()
+                        .header(HttpHeaders.SET_COOKIE, expiredCookie().toString())
+                        .header(HttpHeaders.SET_COOKIE, JwtService.expiredRefreshCookie().toString())
+                        .body("Logged out successfully"));
+    }
+
+    /**
+     * Logs out the user from every session by invalidating all of their issued tokens,
+     * refresh tokens included, then expires the authentication cookies of the current one.
+     * @param currentUser the authenticated user
+     * @return ResponseEntity with logout confirmation
+     */
+    @PostMapping("/auth/logout-all")
+    @ResponseBody
+    public Mono<ResponseEntity<String>> logoutAll(@AuthenticationPrincipal UserApp currentUser) {
+        return Mono.fromRunnable(() -> userAppRepository.findById(currentUser.getId()).ifPresent(tokenVersionService::revokeTokens))
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(ResponseEntity.ok()
+                        .header(HttpHeaders.SET_COOKIE, expiredCookie().toString())
+                        .header(HttpHeaders.SET_COOKIE, JwtService.expiredRefreshCookie().toString())
+                        .body("Logged out from all sessions"));
+    }
+
+    /**
+     * Returns the current authentication status and user information.
+     * @param currentUser the authenticated user (null if not authenticated)
+     * @return ResponseEntity with user info or authentication error
+     */
+    @GetMapping("/auth/status")
+    @ResponseBody
+    public ResponseEntity<?> getAuthStatus(@AuthenticationPrincipal UserApp currentUser) {
+        if (currentUser != null) {
+            return ResponseEntity.ok(currentUser);
+        }
+        return ResponseEntity.status(401).body("Not authenticated");
+    }
+
+    private ResponseCookie expiredCookie() {
+        return ResponseCookie.from(cookieName, "")
+                .httpOnly(true)
+                .path("/")
+                .maxAge(0)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.reactive;
+
+import com.example.demo.WebConfig;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.config.ResourceHandlerRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.resource.EncodedResourceResolver;
+import org.springframework.web.reactive.resource.ResourceUrlProvider;
+import org.springframework.web.reactive.resource.VersionResourceResolver;
+import org.springframework.web.server.WebFilter;
+
+import java.util.Set;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+/**
+ * Web configuration of the reactive (WebFlux) variant of the application,
+ * started with the "reactive" profile instead of the default servlet stack.
+ * Static assets are served under content-hashed URLs and pages are revalidated with ETags,
+ * like {@link WebConfig} does on the servlet stack.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    /**
+     * Serves the assets under their content-hashed URLs, cached for good by browsers and proxies,
+     * and their precompressed {@code .gz} copies to browsers accepting gzip.
+     * @param registry the resource handler registry
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(WebConfig.ASSETS_PATTERN)
+                .addResourceLocations(WebConfig.ASSETS_LOCATION)
+                .setCacheControl(WebConfig.assetCacheControl())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    /**
+     * Rewrites the asset URLs generated while rendering the pages (th:href, th:src) to their content-hashed versions,
+     * which WebFlux has no built-in filter for.
+     * The lookup completes synchronously: assets are read from the classpath once, then their versions are cached.
+     * @param resourceUrlProvider resolves the public URL of an asset
+     * @return the filter registering the URL transformer on every exchange
+     */
+    @Bean
+    public WebFilter assetUrlTransformer(ResourceUrlProvider resourceUrlProvider) {
+        return (exchange, chain) -> {
+            exchange.addUrlTransformer(url -> url.startsWith("/assets/")
+                    ? resourceUrlProvider.getForUriString(url, exchange).defaultIfEmpty(url).toFuture().getNow(url)
+                    : url);
+            return chain.filter(exchange);
+        };
+    }
+
+    /**
+     * Adds content ETags to the pages, answering repeat loads with 304 Not Modified.
+     * @return the filter
+     */
+    @Bean
+    public WebFilter pageEtagFilter() {
+        return new ReactivePageEtagFilter(Set.of("/login", "/register", "/add-offer", "/offers"));
+    }
+
+    /**
+     * Serves the offers page to browsers on GET /offers, like the servlet controller does
+     * when the Accept header contains text/html; other requests fall through to {@link ReactiveJobOfferController}.
+     * @return the route of the offers page
+     */
+    @Bean
+    public RouterFunction<ServerResponse> offersPageRoute() {
+        RequestPredicate acceptsHtml = request -> request.headers().header("Accept").stream()
+                .anyMatch(accept -> accept.contains("text/html"));
+        return RouterFunctions.route(GET("/offers").and(acceptsHtml),
+                request -> ServerResponse.ok().contentType(MediaType.TEXT_HTML).render("offers"));
+    }
+
+    /**
+     * Runs the reactive variant on Netty: with Tomcat also on the classpath (for the default servlet stack),
+     * Spring Boot would otherwise pick Tomcat's reactive adapter.
+     * @return the Netty server factory
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
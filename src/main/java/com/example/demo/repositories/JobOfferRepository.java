@@ -1,13 +1,95 @@
 package com.example.demo.repositories;
 
+import com.example.demo.dto.OfferPage;
+import com.example.demo.dto.OfferSummary;
 import com.example.demo.models.JobOffer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for JobOffer entities.
  * Extends JpaRepository to provide CRUD operations for job offers.
  */
 @Repository
 public interface JobOfferRepository extends JpaRepository<JobOffer, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Returns the offers whose id is greater than the given cursor, ordered by id (keyset pagination).
+     * Offers are projected to {@link OfferSummary} in a single query, without loading any entity.
+     * Pages are kept in the query cache until the offer or user table changes.
+     * @param cursor the id of the last offer of the previous page, 0 for the first page
+     * @param limit the maximum number of offers to return
+     * @return the offers following the cursor
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "offer-pages")
+    })
+    @Query("select new com.example.demo.dto.OfferSummary(o.id, o.title, o.description, o.company, o.salary, u.id, u.username) "
+            + "from JobOffer o left join o.owner u where o.id > :cursor order by o.id")
+    List<OfferSummary> findSummariesAfter(@Param("cursor") Long cursor, Limit limit);
+
+    /**
+     * Same as {@link #findSummariesAfter}, bypassing the query cache: for full scans rebuilding in-memory views,
+     * whose batches are read once and would only evict the pages served to clients.
+     * @param cursor the id of the last offer of the previous batch, 0 for the first batch
+     * @param limit the maximum number of offers to return
+     * @return the offers following the cursor
+     */
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false"))
+    @Query("select new com.example.demo.dto.OfferSummary(o.id, o.title, o.description, o.company, o.salary, u.id, u.username) "
+            + "from JobOffer o left join o.owner u where o.id > :cursor order by o.id")
+    List<OfferSummary> scanSummariesAfter(@Param("cursor") Long cursor, Limit limit);
+
+    /**
+     * Loads one page of offers, fetching one extra row to know whether another page follows.
+     * @param cursor the id after which the page starts, 0 for the first page
+     * @param pageSize the page size
+     * @return the page of offers
+     */
+    default OfferPage findPageAfter(long cursor, int pageSize) {
+        List<OfferSummary> offers = findSummariesAfter(cursor, Limit.of(pageSize + 1));
+        if (offers.size() <= pageSize) {
+            return new OfferPage(offers, null);
+        }
+        List<OfferSummary> items = offers.subList(0, pageSize);
+        return new OfferPage(items, items.get(pageSize - 1).id());
+    }
+
+    /**
+     * Returns the offers with the given ids, projected to {@link OfferSummary} in a single query.
+     * @param ids the ids of the offers
+     * @return the offers found, in no particular order
+     */
+    @Query("select new com.example.demo.dto.OfferSummary(o.id, o.title, o.description, o.company, o.salary, u.id, u.username) "
+            + "from JobOffer o left join o.owner u where o.id in :ids")
+    List<OfferSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams every offer with its owner, ordered by id, through a forward-only read-only cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     * The offers are read from the second-level cache when present but not added to it.
+     * @return a stream over all job offers
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_MODE, value = "GET")
+    })
+    @Query("select o from JobOffer o left join fetch o.owner order by o.id")
+    Stream<JobOffer> streamAll();
+
+    /** Number of rows fetched per round-trip by {@link #streamAll()} */
+    int EXPORT_FETCH_SIZE = 500;
+}
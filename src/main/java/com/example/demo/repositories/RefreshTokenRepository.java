@@ -0,0 +1,46 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository interface for RefreshToken entities.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Finds a refresh token by its hash.
+     * @param tokenHash the hash of the token
+     * @return Optional containing the token if found, empty otherwise
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Revokes every token of a family in a single statement.
+     * @param familyId the id of the family
+     * @return the number of revoked tokens
+     */
+    @Modifying
+    @Transactional
+    @Query("update RefreshToken r set r.revoked = true where r.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    /**
+     * Deletes the expired tokens in a single statement.
+     * @param now the current time
+     * @return the number of deleted tokens
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RefreshToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
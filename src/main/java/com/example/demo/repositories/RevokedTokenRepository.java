@@ -0,0 +1,45 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for RevokedToken entities.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Tells whether a token is revoked and not expired yet.
+     * @param tokenId the token's id
+     * @param now the current time
+     * @return true if the token is revoked
+     */
+    boolean existsByTokenIdAndExpiresAtAfter(String tokenId, Instant now);
+
+    /**
+     * Returns the ids of the revoked tokens that have not expired yet.
+     * @param now the current time
+     * @return the revoked token ids
+     */
+    @Query("select r.tokenId from RevokedToken r where r.expiresAt > :now")
+    List<String> findActiveIds(@Param("now") Instant now);
+
+    /**
+     * Deletes the entries of the expired tokens in a single statement.
+     * @param now the current time
+     * @return the number of deleted entries
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
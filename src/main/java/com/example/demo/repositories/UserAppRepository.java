@@ -1,8 +1,15 @@
 package com.example.demo.repositories;
 
 import com.example.demo.models.UserApp;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -15,8 +22,29 @@ public interface UserAppRepository extends JpaRepository<UserApp, Integer> {
     
     /**
      * Finds a user by their username.
+     * The id found is kept in the query cache and the user in the second-level cache,
+     * so that repeated lookups reach the database only after a write to the user table.
      * @param username the username to search for
      * @return Optional containing the user if found, empty otherwise
      */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = "users-by-username")
+    })
     public Optional<UserApp> findByUsername(String username);
+
+    /**
+     * Replaces a user's password hash only if it is still the expected one, in a single statement,
+     * so that a password changed concurrently is never overwritten.
+     * Being a bulk update, it bypasses the entity listeners: callers evict the {@code UserAppCache} themselves.
+     * @param id the user's id
+     * @param oldPassword the hash expected in the database
+     * @param newPassword the new hash
+     * @return 1 if the hash was replaced, 0 if it had changed or the user is gone
+     */
+    @Modifying
+    @Transactional
+    @Query("update UserApp u set u.password = :newPassword where u.id = :id and u.password = :oldPassword")
+    int updatePasswordIfUnchanged(@Param("id") Integer id, @Param("oldPassword") String oldPassword,
+                                  @Param("newPassword") String newPassword);
 }
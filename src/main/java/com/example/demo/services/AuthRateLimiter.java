@@ -0,0 +1,171 @@
+package com.example.demo.services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-IP and per-username token buckets throttling POST /auth/login and /auth/register,
+ * since every call to them costs a full BCrypt operation.
+ * Shared by the servlet {@link AuthRateLimitFilter} and its reactive counterpart.
+ * Rejections are counted in the "auth.rate-limit.rejected" metric.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String USERNAME_FIELD = "username";
+    /** Body of the 429 responses */
+    public static final String REJECTION_MESSAGE = "Too many authentication attempts, please retry later";
+    /** Returned by {@link #acquireForBody} for a body with several "username" fields, which is answered with 400 */
+    public static final long AMBIGUOUS_USERNAME = -1;
+    /** Body of the 400 responses to bodies with several "username" fields */
+    public static final String AMBIGUOUS_USERNAME_MESSAGE = "The username field must appear only once";
+    /** Marker of a body with several "username" fields, compared by identity */
+    private static final String DUPLICATE_USERNAME = new String(USERNAME_FIELD);
+
+    private final boolean enabled;
+    private final int maxBodySize;
+    private final TokenBucketLimiter ipLimiter;
+    private final TokenBucketLimiter usernameLimiter;
+    private final Counter ipRejectedCounter;
+    private final Counter usernameRejectedCounter;
+
+    /**
+     * Creates the token buckets from application properties.
+     * @param enabled whether the authentication endpoints are throttled at all
+     * @param ipCapacity number of requests a client IP may burst
+     * @param ipPeriod time needed to refill the whole bucket of a client IP
+     * @param usernameCapacity number of requests a username may burst
+     * @param usernamePeriod time needed to refill the whole bucket of a username
+     * @param maxEntries maximum number of buckets kept in memory, per kind of key
+     * @param idleTimeout how long a full bucket is kept before it can be evicted
+     * @param maxBodySize largest request body read to find the username
+     * @param meterRegistry registry receiving the rejection counters
+     */
+    public AuthRateLimiter(@Value("${security.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${security.rate-limit.ip.capacity:20}") int ipCapacity,
+                           @Value("${security.rate-limit.ip.period:1m}") Duration ipPeriod,
+                           @Value("${security.rate-limit.username.capacity:5}") int usernameCapacity,
+                           @Value("${security.rate-limit.username.period:1m}") Duration usernamePeriod,
+                           @Value("${security.rate-limit.max-entries:100000}") int maxEntries,
+                           @Value("${security.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                           @Value("${security.rate-limit.max-body-size:4096}") int maxBodySize,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxBodySize = maxBodySize;
+        this.ipLimiter = new TokenBucketLimiter(ipCapacity, ipPeriod, maxEntries, idleTimeout);
+        this.usernameLimiter = new TokenBucketLimiter(usernameCapacity, usernamePeriod, maxEntries, idleTimeout);
+        this.ipRejectedCounter = Counter.builder("auth.rate-limit.rejected").tag("key", "ip").register(meterRegistry);
+        this.usernameRejectedCounter = Counter.builder("auth.rate-limit.rejected").tag("key", "username").register(meterRegistry);
+    }
+
+    /**
+     * Tells whether a request is throttled: only POST /auth/login and POST /auth/register are.
+     * @param method the HTTP method
+     * @param path the request path, without context path
+     * @return true if the request goes through the token buckets
+     */
+    public boolean appliesTo(String method, String path) {
+        return enabled && "POST".equals(method) && ("/auth/login".equals(path) || "/auth/register".equals(path));
+    }
+
+    /**
+     * Returns the largest request body read to find the username.
+     * @return the size in bytes
+     */
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * Takes a token from the bucket of a client address.
+     * @param address the client IP address
+     * @return 0 if a token was taken, otherwise the number of nanoseconds until one is available
+     */
+    public long acquireForAddress(String address) {
+        long wait = ipLimiter.tryAcquire(address);
+        if (wait > 0) {
+            ipRejectedCounter.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Takes a token from the bucket of the username found in a JSON request body.
+     * Bodies without a textual top-level "username" field are only limited per address.
+     * The bucket is keyed by the username exactly as {@link UserAppCache#findByUsername} looks it up (case-sensitively),
+     * so usernames differing only in case, which are distinct accounts, do not share their attempts.
+     * Bodies with several of them are refused: Jackson binds the last one, so counting another
+     * would let a client spread its guesses against one account over throwaway names.
+     * @param body the request body
+     * @return 0 if a token was taken or the body has no username, {@link #AMBIGUOUS_USERNAME} if the body
+     *         has several usernames, otherwise the number of nanoseconds until a token is available
+     */
+    public long acquireForBody(byte[] body) {
+        String username = extractUsername(body);
+        if (username == DUPLICATE_USERNAME) {
+            usernameRejectedCounter.increment();
+            return AMBIGUOUS_USERNAME;
+        }
+        if (username == null) {
+            return 0;
+        }
+        long wait = usernameLimiter.tryAcquire(username);
+        if (wait > 0) {
+            usernameRejectedCounter.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * Converts a wait into the value of a Retry-After header, rounded up to the next second.
+     * @param waitNanos the wait in nanoseconds
+     * @return the number of seconds to wait, at least 1
+     */
+    public static long retryAfterSeconds(long waitNanos) {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        return Math.max(1, (waitNanos + second - 1) / second);
+    }
+
+    /**
+     * Reads the top-level "username" field of a JSON body without binding the whole document.
+     * The whole object is scanned, so that a repeated field is detected.
+     * @param body the request body
+     * @return the username, {@link #DUPLICATE_USERNAME} if the field appears more than once,
+     *         or null if the body is not a JSON object with a textual username
+     */
+    static String extractUsername(byte[] body) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String username = null;
+            boolean found = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean isUsername = USERNAME_FIELD.equals(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (isUsername) {
+                    if (found) {
+                        return DUPLICATE_USERNAME;
+                    }
+                    found = true;
+                    username = value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return username;
+        } catch (IOException e) {
+            // Malformed JSON: only the IP bucket applies, the controller rejects the body anyway
+            return null;
+        }
+    }
+}
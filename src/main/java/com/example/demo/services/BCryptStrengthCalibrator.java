@@ -0,0 +1,47 @@
+package com.example.demo.services;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt work factor that makes one hash take about a target duration on the current hardware.
+ * Each increment of the work factor doubles the hashing time, so a single measurement at the minimum
+ * strength is enough to extrapolate.
+ */
+public final class BCryptStrengthCalibrator {
+
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    /**
+     * Measures the hashing time at the minimum strength and returns the largest strength whose
+     * expected hashing time does not exceed the target.
+     * @param target the desired duration of one hash
+     * @param minStrength the lowest acceptable work factor
+     * @param maxStrength the highest acceptable work factor
+     * @return the calibrated work factor, between minStrength and maxStrength
+     */
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        // Warm-up run so that class loading and JIT compilation do not skew the measurement
+        encoder.encode(SAMPLE_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        int strength = minStrength;
+        long expected = best;
+        while (strength < maxStrength && expected * 2 <= target.toNanos()) {
+            expected *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
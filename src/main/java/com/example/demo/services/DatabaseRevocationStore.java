@@ -0,0 +1,42 @@
+package com.example.demo.services;
+
+import com.example.demo.models.RevokedToken;
+import com.example.demo.repositories.RevokedTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * {@link RevocationStore} keeping the revoked token ids in the revoked_token table,
+ * so that a logout on one node is enforced by every node sharing the database.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "database")
+public class DatabaseRevocationStore implements RevocationStore {
+
+    @Autowired
+    RevokedTokenRepository revokedTokenRepository;
+
+    @Override
+    public void revoke(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt));
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId, Instant now) {
+        return revokedTokenRepository.existsByTokenIdAndExpiresAtAfter(tokenId, now);
+    }
+
+    @Override
+    public List<String> findActive(Instant now) {
+        return revokedTokenRepository.findActiveIds(now);
+    }
+
+    @Override
+    public void purgeExpired(Instant now) {
+        revokedTokenRepository.deleteExpired(now);
+    }
+}
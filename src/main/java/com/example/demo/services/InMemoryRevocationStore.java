@@ -0,0 +1,48 @@
+package com.example.demo.services;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link RevocationStore} keeping the revoked token ids in memory, for single-node deployments.
+ * Revocations are lost on restart and are not seen by other nodes.
+ */
+@Component
+@ConditionalOnProperty(name = "jwt.revocation.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRevocationStore implements RevocationStore {
+
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+
+    @Override
+    public void revoke(String tokenId, Instant expiresAt) {
+        revokedTokens.put(tokenId, expiresAt);
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId, Instant now) {
+        Instant expiresAt = revokedTokens.get(tokenId);
+        return expiresAt != null && expiresAt.isAfter(now);
+    }
+
+    @Override
+    public List<String> findActive(Instant now) {
+        List<String> tokenIds = new ArrayList<>();
+        revokedTokens.forEach((tokenId, expiresAt) -> {
+            if (expiresAt.isAfter(now)) {
+                tokenIds.add(tokenId);
+            }
+        });
+        return tokenIds;
+    }
+
+    @Override
+    public void purgeExpired(Instant now) {
+        revokedTokens.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.demo.services;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of keys signing and verifying the JWT tokens, so that keys can be rotated without logging everyone out.
+ * New tokens are signed with the active key and carry its id in the "kid" header; a token is verified with the key
+ * named by its kid, and tokens without kid (issued before the key ring) with the legacy jwt.secret key.
+ * Every key is decoded once when the ring is built and the parser is shared, so verification only costs a map lookup
+ * on top of the signature check. With asymmetric keys, nodes configured with the public keys only can verify
+ * tokens but not issue them.
+ */
+public final class JwtKeyRing {
+
+    /** A key verifying the tokens signed with a given algorithm */
+    private record VerificationKey(SignatureAlgorithm algorithm, Key key) {
+    }
+
+    private final VerificationKey legacyKey;
+    private final Map<String, VerificationKey> verificationKeys;
+    private final String signingKid;
+    private final SignatureAlgorithm signingAlgorithm;
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    private JwtKeyRing(VerificationKey legacyKey, Map<String, VerificationKey> verificationKeys,
+                       String signingKid, SignatureAlgorithm signingAlgorithm, Key signingKey) {
+        this.legacyKey = legacyKey;
+        this.verificationKeys = Map.copyOf(verificationKeys);
+        this.signingKid = signingKid;
+        this.signingAlgorithm = signingAlgorithm;
+        this.signingKey = signingKey;
+        this.parser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return resolve(header);
+            }
+        }).build();
+    }
+
+    /**
+     * Builds the key ring.
+     *
+     * @param secret the Base64-encoded legacy HMAC secret, verifying tokens without kid; blank if there is none
+     * @param properties the keys of the ring, may be null
+     * @return the key ring
+     * @throws IllegalArgumentException if a key is invalid or the active key is unknown or cannot sign
+     */
+    public static JwtKeyRing of(String secret, JwtKeyRingProperties properties) {
+        VerificationKey legacyKey = secret == null || secret.isBlank() ? null
+                : new VerificationKey(SignatureAlgorithm.HS256, Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)));
+        Map<String, VerificationKey> verificationKeys = new HashMap<>();
+        String activeKid = properties != null && properties.activeKid() != null && !properties.activeKid().isBlank()
+                ? properties.activeKid() : null;
+        SignatureAlgorithm signingAlgorithm = legacyKey != null ? legacyKey.algorithm() : null;
+        Key signingKey = legacyKey != null ? legacyKey.key() : null;
+
+        if (properties != null) {
+            for (JwtKeyRingProperties.Entry entry : properties.keys()) {
+                if (entry.kid() == null || entry.kid().isBlank()) {
+                    throw new IllegalArgumentException("JWT key without kid");
+                }
+                SignatureAlgorithm algorithm = SignatureAlgorithm.forName(entry.algorithm());
+                Key verificationKey;
+                Key entrySigningKey;
+                try {
+                    if (algorithm.isHmac()) {
+                        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(entry.secret()));
+                        verificationKey = key;
+                        entrySigningKey = key;
+                    } else if (algorithm.isEllipticCurve() || algorithm.isRsa()) {
+                        KeyFactory keyFactory = KeyFactory.getInstance(algorithm.isEllipticCurve() ? "EC" : "RSA");
+                        verificationKey = keyFactory.generatePublic(new X509EncodedKeySpec(decodeKey(entry.publicKey())));
+                        entrySigningKey = entry.privateKey() == null || entry.privateKey().isBlank() ? null
+                                : keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decodeKey(entry.privateKey())));
+                    } else {
+                        throw new IllegalArgumentException("Unsupported JWT algorithm " + algorithm);
+                    }
+                    // Rejects keys that are too weak or of the wrong type for the algorithm
+                    algorithm.assertValidVerificationKey(verificationKey);
+                    if (entrySigningKey != null) {
+                        algorithm.assertValidSigningKey(entrySigningKey);
+                    }
+                } catch (GeneralSecurityException | RuntimeException e) {
+                    throw new IllegalArgumentException("Invalid JWT key " + entry.kid() + ": " + e.getMessage(), e);
+                }
+                if (verificationKeys.put(entry.kid(), new VerificationKey(algorithm, verificationKey)) != null) {
+                    throw new IllegalArgumentException("Duplicate JWT key " + entry.kid());
+                }
+                if (entry.kid().equals(activeKid)) {
+                    if (entrySigningKey == null) {
+                        throw new IllegalArgumentException("Active JWT key " + activeKid + " has no private key");
+                    }
+                    signingAlgorithm = algorithm;
+                    signingKey = entrySigningKey;
+                }
+            }
+        }
+        if (activeKid != null && !verificationKeys.containsKey(activeKid)) {
+            throw new IllegalArgumentException("Unknown active JWT key " + activeKid);
+        }
+        return new JwtKeyRing(legacyKey, verificationKeys, activeKid, signingAlgorithm, signingKey);
+    }
+
+    /**
+     * Accepts raw Base64 as well as PEM (with its BEGIN/END lines).
+     */
+    private static byte[] decodeKey(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            throw new IllegalArgumentException("missing key");
+        }
+        return Decoders.BASE64.decode(encoded.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", ""));
+    }
+
+    private Key resolve(JwsHeader<?> header) {
+        String kid = header.getKeyId();
+        VerificationKey key = kid == null ? legacyKey : verificationKeys.get(kid);
+        if (key == null) {
+            throw new SignatureException(kid == null ? "Token without kid" : "Unknown key id " + kid);
+        }
+        // The key decides the algorithm, never the token
+        if (!key.algorithm().getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException("Unexpected algorithm " + header.getAlgorithm() + " for key " + kid);
+        }
+        return key.key();
+    }
+
+    /**
+     * Returns the thread-safe parser verifying tokens with the key named by their kid header.
+     *
+     * @return the shared parser
+     */
+    public JwtParser parser() {
+        return parser;
+    }
+
+    /**
+     * Tells whether this node can issue tokens.
+     *
+     * @return false if the ring only holds verification keys
+     */
+    public boolean canSign() {
+        return signingKey != null;
+    }
+
+    /**
+     * Signs a token with the active key, naming it in the kid header.
+     *
+     * @param builder the token to sign
+     * @return the compact signed token
+     * @throws IllegalStateException if this node has no signing key
+     */
+    public String sign(JwtBuilder builder) {
+        if (signingKey == null) {
+            throw new IllegalStateException("No JWT signing key: this node only verifies tokens");
+        }
+        if (signingKid != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, signingKid);
+        }
+        return builder.signWith(signingKey, signingAlgorithm).compact();
+    }
+}
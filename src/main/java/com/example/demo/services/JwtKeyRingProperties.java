@@ -0,0 +1,29 @@
+package com.example.demo.services;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Keys of the {@link JwtKeyRing}, bound from the "jwt.key-ring" properties.
+ *
+ * @param activeKid id of the key signing new tokens; blank to sign with jwt.secret (no kid header),
+ *                  or to only verify tokens when jwt.secret is blank too
+ * @param keys the keys verifying tokens by their kid header
+ */
+@ConfigurationProperties(prefix = "jwt.key-ring")
+public record JwtKeyRingProperties(String activeKid, @DefaultValue List<Entry> keys) {
+
+    /**
+     * One key of the ring.
+     *
+     * @param kid the key id, written in the "kid" header of the tokens it signs
+     * @param algorithm the JWS algorithm: HS256/384/512, ES256/384/512, RS256/384/512 or PS256/384/512
+     * @param secret the Base64-encoded HMAC secret, for the HS algorithms
+     * @param privateKey the Base64 (or PEM) PKCS#8 private key, for the asymmetric algorithms; absent on verify-only nodes
+     * @param publicKey the Base64 (or PEM) X.509 public key, for the asymmetric algorithms
+     */
+    public record Entry(String kid, @DefaultValue("HS256") String algorithm, String secret, String privateKey, String publicKey) {
+    }
+}
@@ -1,11 +1,12 @@
 package com.example.demo.services;
 
+import com.example.demo.models.Role;
 import com.example.demo.models.UserApp;
-import com.example.demo.repositories.UserAppRepository;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -13,9 +14,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -25,8 +28,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for handling JWT token operations and authentication.
@@ -35,16 +40,33 @@ import java.util.stream.Stream;
  */
 @Service
 public class JwtService extends OncePerRequestFilter {
-    @Value("${jwt.secret}")
+    /** Keys signing and verifying the tokens, with the shared parser; rebuilt when the configuration is set */
+    private static JwtKeyRing KEY_RING;
     private static String SECRET;
+    private static JwtKeyRingProperties KEY_RING_PROPERTIES;
     /**
      * Sets the JWT secret key from application properties.
+     * The secret is Base64-decoded into the legacy HMAC key, which verifies the tokens without kid header
+     * and signs new tokens unless an active key is set in the {@link JwtKeyRing}.
+     * Keys and parser are built once here, so no key derivation or parser construction happens per request or per login.
      * 
-     * @param secret the secret key for JWT signing
+     * @param secret the Base64-encoded secret key for JWT signing, blank on nodes that only use the key ring
      */
-    @Value("${jwt.secret}")
+    @Value("${jwt.secret:}")
     public void setSecret(String secret) {
         SECRET = secret;
+        KEY_RING = JwtKeyRing.of(SECRET, KEY_RING_PROPERTIES);
+    }
+
+    /**
+     * Sets the keys of the key ring from the "jwt.key-ring" properties.
+     *
+     * @param properties the key ring configuration
+     */
+    @Autowired
+    public void setKeyRing(JwtKeyRingProperties properties) {
+        KEY_RING_PROPERTIES = properties;
+        KEY_RING = JwtKeyRing.of(SECRET, KEY_RING_PROPERTIES);
     }
 
     private static String COOKIE_NAME= "";
@@ -57,15 +79,108 @@ public class JwtService extends OncePerRequestFilter {
     public void setCookieName(String cookie_name) {
         COOKIE_NAME = cookie_name;
     }
-    /** JWT token validity period in milliseconds (5 hours) */
-    public static final long JWT_TOKEN_VALIDITY = 5 * 60 * 60 * 1000;
+    private static String REFRESH_COOKIE_NAME = "REFRESH";
+    /**
+     * Sets the refresh token cookie name from application properties.
+     *
+     * @param refreshCookieName the name of the refresh token cookie
+     */
+    @Value("${jwt.refresh-token.cookie-name:REFRESH}")
+    public void setRefreshCookieName(String refreshCookieName) {
+        REFRESH_COOKIE_NAME = refreshCookieName;
+    }
+
+    /** Access token validity period in milliseconds */
+    private static long ACCESS_TOKEN_VALIDITY = Duration.ofMinutes(15).toMillis();
+    /**
+     * Sets the access token validity from application properties.
+     * Access tokens are short-lived and re-issued from the refresh token, see {@link RefreshTokenService}.
+     *
+     * @param validity how long an access token is valid
+     */
+    @Value("${jwt.access-token.validity:15m}")
+    public void setAccessTokenValidity(Duration validity) {
+        ACCESS_TOKEN_VALIDITY = validity.toMillis();
+    }
+
+    /** Access tokens expiring within this delay are re-issued by the filter */
+    @Value("${jwt.access-token.refresh-before:5m}")
+    private Duration refreshBefore = Duration.ofMinutes(5);
+
+    @Autowired
+    UserAppCache userAppCache;
 
     @Autowired
-    UserAppRepository userAppRepository;
+    VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    TokenVersionService tokenVersionService;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    RefreshTokenService refreshTokenService;
+
+    /** Claim holding the user id */
+    public static final String USER_ID_CLAIM = "uid";
+    /** Claim holding the user's token version at issue time */
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+
+    /**
+     * When true, the principal is built from the token claims instead of being loaded from the database.
+     */
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
+
+    private MeterRegistry meterRegistry;
+    private Timer extractTimer;
+    private Timer cacheTimer;
+    private Timer verifyTimer;
+    private Timer principalTimer;
+    private Timer refreshTimer;
+    private Timer anonymousTimer;
+    private Timer cachedTimer;
+    private Timer verifiedTimer;
+    private Timer rejectedTimer;
+
+    /**
+     * Registers the authentication timers:
+     * "jwt.authentication.phase" (tag phase: extract, cache, verify, principal, refresh) times each step,
+     * "jwt.authentication" (tag outcome: anonymous, cached, verified, rejected) times the whole authentication,
+     * and "jwt.authentication.rejected" (tag reason: the exception) counts the rejected tokens.
+     *
+     * @param meterRegistry the registry receiving the metrics
+     */
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.extractTimer = phaseTimer(meterRegistry, "extract");
+        this.cacheTimer = phaseTimer(meterRegistry, "cache");
+        this.verifyTimer = phaseTimer(meterRegistry, "verify");
+        this.principalTimer = phaseTimer(meterRegistry, "principal");
+        this.refreshTimer = phaseTimer(meterRegistry, "refresh");
+        this.anonymousTimer = outcomeTimer(meterRegistry, "anonymous");
+        this.cachedTimer = outcomeTimer(meterRegistry, "cached");
+        this.verifiedTimer = outcomeTimer(meterRegistry, "verified");
+        this.rejectedTimer = outcomeTimer(meterRegistry, "rejected");
+    }
+
+    private static Timer phaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("jwt.authentication.phase").tag("phase", phase).register(meterRegistry);
+    }
+
+    private static Timer outcomeTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("jwt.authentication").tag("outcome", outcome).register(meterRegistry);
+    }
 
     /**
      * Filters incoming requests to extract and validate JWT tokens from cookies.
-     * Sets up Spring Security authentication context if token is valid.
+     * Sets up Spring Security authentication context if token is valid,
+     * and expires the cookie otherwise. When the access token is missing, invalid or about to expire
+     * and a refresh token cookie is present, new access and refresh token cookies are issued
+     * and the request is authenticated with the new access token.
+     * Each phase is timed, see {@link #setMeterRegistry(MeterRegistry)}.
      * 
      * @param request the HTTP servlet request
      * @param response the HTTP servlet response
@@ -79,46 +194,264 @@ public class JwtService extends OncePerRequestFilter {
                                     FilterChain filterChain)
             throws ServletException, IOException {
 
-        if (request.getCookies() != null) {
-            Stream.of(request.getCookies())
-                    .filter(cookie ->
-                            cookie.getName().equals(COOKIE_NAME))
-                                .map(Cookie::getValue)
-                    .forEach(token -> {
-                        try {
-
-                            Claims claims = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
-
-                            Optional<UserApp> optUserApp = userAppRepository.findByUsername(claims.getSubject());
-                            if(optUserApp.isEmpty()){
-                                throw new UsernameNotFoundException(claims.getSubject());
-                            }
-                            UserApp userApp = optUserApp.get();
-
-                            if (validateToken(token, userApp)) {
-                                String role = claims.get("role", String.class);
-                                List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                                if (role != null) {
-                                    authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
-                                }
-                                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-                                        userApp, null, authorities);
-                                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-                            }
-                        } catch (Exception e) {
-                            // Remove the cookie
-                            Cookie expiredCookie = new Cookie(COOKIE_NAME, null);
-                            expiredCookie.setPath("/");
-                            expiredCookie.setHttpOnly(true);
-                            expiredCookie.setMaxAge(0); // Set the cookie's max age to 0 to delete it
-                            response.addCookie(expiredCookie);
-                        }
-                    });
+        long start = System.nanoTime();
+        RequestTimings timings = RequestTimings.current();
+        String token = extractToken(request);
+        String refreshToken = extractCookie(request, REFRESH_COOKIE_NAME);
+        long extracted = System.nanoTime();
+        record(extractTimer, timings, "jwt-extract", extracted - start);
+
+        VerifiedAuthentication authentication = null;
+        if (token == null) {
+            anonymousTimer.record(extracted - start, TimeUnit.NANOSECONDS);
+        } else {
+            try {
+                authentication = authenticateToken(token);
+            } catch (RuntimeException e) {
+                // Refreshed below, or the cookie is removed
+            }
+        }
+
+        boolean refreshed = false;
+        if (refreshToken != null && (authentication == null
+                || authentication.expiresAt() - System.currentTimeMillis() < refreshBefore.toMillis())) {
+            long refreshStart = System.nanoTime();
+            try {
+                RefreshTokenService.TokenPair tokens = refreshTokenService.refresh(refreshToken);
+                response.addHeader(HttpHeaders.SET_COOKIE, accessCookie(tokens.accessToken()).toString());
+                response.addHeader(HttpHeaders.SET_COOKIE, refreshCookie(tokens.refreshToken()).toString());
+                refreshed = true;
+                if (authentication == null) {
+                    authentication = authenticateToken(tokens.accessToken());
+                }
+            } catch (AuthenticationException e) {
+                response.addHeader(HttpHeaders.SET_COOKIE, expiredCookie(REFRESH_COOKIE_NAME).toString());
+            } catch (RuntimeException e) {
+                // e.g. the database is unavailable: keep the cookies and use the access token while it lasts
+            }
+            record(refreshTimer, timings, "jwt-refresh", System.nanoTime() - refreshStart);
+        }
+
+        if (authentication != null) {
+            SecurityContextHolder.getContext().setAuthentication(authentication.authentication());
+        } else if (token != null && !refreshed) {
+            response.addHeader(HttpHeaders.SET_COOKIE, expiredCookie(COOKIE_NAME).toString());
         }
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Tells whether the access token of a request carrying a refresh token should be re-issued,
+     * from the {@link VerifiedTokenCache} when possible.
+     *
+     * @param token the raw access token, may be null
+     * @return true if the token is missing, invalid, or expires within the refresh delay
+     */
+    public boolean needsRefresh(String token) {
+        if (token == null) {
+            return true;
+        }
+        long expiresAt;
+        VerifiedTokenCache.VerifiedToken verifiedToken = verifiedTokenCache.get(token);
+        if (verifiedToken != null) {
+            expiresAt = verifiedToken.expiresAt();
+        } else {
+            try {
+                expiresAt = parseClaims(token).getExpiration().getTime();
+            } catch (RuntimeException e) {
+                return true;
+            }
+        }
+        return expiresAt - System.currentTimeMillis() < refreshBefore.toMillis();
+    }
+
+    /**
+     * Verifies a JWT token and builds the authentication of its user.
+     * Tokens that were verified recently are served from the {@link VerifiedTokenCache}
+     * without re-checking the signature or loading the user again.
+     * In stateless mode the principal is built from the claims, so no database access happens at all;
+     * in both modes the token's version must match the user's current token version,
+     * and the token must not have been revoked (see {@link TokenRevocationService}).
+     * May block on the database when the user or its token version is not cached.
+     *
+     * @param token the raw JWT token
+     * @return the authentication of the token's user
+     * @throws RuntimeException if the token is invalid, expired, revoked or its user no longer exists
+     */
+    public UsernamePasswordAuthenticationToken authenticate(String token) {
+        return authenticateToken(token).authentication();
+    }
+
+    /**
+     * Authentication of a verified token, with the token's expiration.
+     */
+    private record VerifiedAuthentication(UsernamePasswordAuthenticationToken authentication, long expiresAt) {
+    }
+
+    private VerifiedAuthentication authenticateToken(String token) {
+        RequestTimings timings = RequestTimings.current();
+        long start = System.nanoTime();
+        try {
+            VerifiedTokenCache.VerifiedToken verifiedToken = verifiedTokenCache.get(token);
+            if (verifiedToken != null) {
+                UserApp userApp = (UserApp) verifiedToken.principal();
+                if (!tokenVersionService.isCurrent(userApp.getId(), userApp.getTokenVersion())) {
+                    throw new DisabledException("Token version is outdated");
+                }
+                if (tokenRevocationService.isRevoked(verifiedToken.tokenId())) {
+                    throw new DisabledException("Token has been revoked");
+                }
+                long end = System.nanoTime();
+                record(cacheTimer, timings, "jwt-cache", end - start);
+                cachedTimer.record(end - start, TimeUnit.NANOSECONDS);
+                return new VerifiedAuthentication(new UsernamePasswordAuthenticationToken(userApp, null,
+                        verifiedToken.authorities()), verifiedToken.expiresAt());
+            }
+            long missed = System.nanoTime();
+            record(cacheTimer, timings, "jwt-cache", missed - start);
+
+            // A single parse verifies the signature and expiration and yields the claims
+            Claims claims = parseClaims(token);
+            if (tokenRevocationService.isRevoked(claims.getId())) {
+                throw new DisabledException("Token has been revoked");
+            }
+            long verified = System.nanoTime();
+            record(verifyTimer, timings, "jwt-verify", verified - missed);
+
+            UserApp userApp = resolvePrincipal(claims);
+            if (!tokenVersionService.isCurrent(userApp.getId(), userApp.getTokenVersion())) {
+                throw new DisabledException("Token version is outdated");
+            }
+            long resolved = System.nanoTime();
+            record(principalTimer, timings, "jwt-principal", resolved - verified);
+
+            String role = claims.get("role", String.class);
+            List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+            if (role != null) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+            }
+            verifiedTokenCache.put(token, claims.getId(), userApp, authorities, claims.getExpiration());
+            verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return new VerifiedAuthentication(new UsernamePasswordAuthenticationToken(userApp, null, authorities),
+                    claims.getExpiration().getTime());
+        } catch (RuntimeException e) {
+            verifiedTokenCache.invalidate(token);
+            rejectedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            meterRegistry.counter("jwt.authentication.rejected", "reason", e.getClass().getSimpleName()).increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Records the duration of an authentication phase in its timer and, when enabled, in the Server-Timing header.
+     */
+    private static void record(Timer timer, RequestTimings timings, String phase, long nanos) {
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+        if (timings != null) {
+            timings.record(phase, nanos);
+        }
+    }
+
+    /**
+     * Resolves the principal of a verified token.
+     * In stateless mode the user is rebuilt from the subject, role, user id and token version claims
+     * (without password); otherwise it is loaded from the database and must still have the token's version.
+     * Tokens issued before the user id claim existed always fall back to the database.
+     *
+     * @param claims the verified token claims
+     * @return the authenticated user
+     * @throws UsernameNotFoundException if the subject no longer exists
+     */
+    private UserApp resolvePrincipal(Claims claims) {
+        Integer userId = claims.get(USER_ID_CLAIM, Integer.class);
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        int version = tokenVersion != null ? tokenVersion : 0;
+        if (stateless && userId != null) {
+            UserApp userApp = new UserApp(claims.getSubject(), null, Role.valueOf(claims.get("role", String.class)));
+            userApp.setId(userId);
+            userApp.setTokenVersion(version);
+            return userApp;
+        }
+
+        Optional<UserApp> optUserApp = userAppCache.findByUsername(claims.getSubject());
+        if(optUserApp.isEmpty()){
+            throw new UsernameNotFoundException(claims.getSubject());
+        }
+        UserApp userApp = optUserApp.get();
+        if (userApp.getTokenVersion() != version) {
+            throw new DisabledException("Token version is outdated");
+        }
+        return userApp;
+    }
+
+    /**
+     * Ends a login session: revokes its access token and the family of its refresh token.
+     *
+     * @param token the raw access token, may be null
+     * @param refreshToken the refresh token, may be null
+     */
+    public void logout(String token, String refreshToken) {
+        revoke(token);
+        refreshTokenService.revoke(refreshToken);
+    }
+
+    /**
+     * Revokes a token until its expiration, e.g. on logout, so that a copy of it is rejected too.
+     *
+     * @param token the raw JWT token, may be null
+     * @return true if the token has been revoked, false if it is invalid or has no id
+     */
+    public boolean revoke(String token) {
+        if (token == null) {
+            return false;
+        }
+        Claims claims;
+        try {
+            claims = parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+        boolean revoked = tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+        verifiedTokenCache.invalidate(token);
+        return revoked;
+    }
+
+    /**
+     * Returns the value of the first JWT cookie sent with the request.
+     *
+     * @param request the HTTP servlet request
+     * @return the raw JWT token, or null if the request carries no JWT cookie
+     */
+    public static String extractToken(HttpServletRequest request) {
+        return extractCookie(request, COOKIE_NAME);
+    }
+
+    private static String extractCookie(HttpServletRequest request, String name) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (name.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a JWT token with the shared parser, verifying its signature with the key named by its kid header,
+     * and its expiration.
+     *
+     * @param token the JWT token to parse
+     * @return the token claims
+     * @throws JwtException if the token is malformed, expired or not signed with one of our keys
+     */
+    public static Claims parseClaims(String token) {
+        return KEY_RING.parser().parseClaimsJws(token).getBody();
+    }
+
     /**
      * Validates a JWT token by parsing it with the secret key.
      * 
@@ -128,7 +461,7 @@ public class JwtService extends OncePerRequestFilter {
      */
     public static Boolean validateToken(String token, UserApp userApp) {
         try {
-            Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody();
+            parseClaims(token);
         }catch (Exception e){
             return false;
         }
@@ -137,18 +470,23 @@ public class JwtService extends OncePerRequestFilter {
     }
 
     /**
-     * Generates a JWT token for a user with username and role claims.
+     * Generates a JWT token for a user with username, role, user id and token version claims,
+     * and a random id ("jti") so that it can be revoked on its own,
+     * signed with the active key of the {@link JwtKeyRing}.
      * 
      * @param userApp the user for whom to generate the token
      * @return the generated JWT token string
+     * @throws IllegalStateException if this node only verifies tokens
      */
     public static String generateToken(UserApp userApp) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("username", userApp.getUsername());
         claims.put("role", userApp.getRole().name());
-        return Jwts.builder().setClaims(claims).setSubject(userApp.getUsername()).setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_TOKEN_VALIDITY))
-                .signWith(SignatureAlgorithm.HS256, SECRET).compact();
+        claims.put(USER_ID_CLAIM, userApp.getId());
+        claims.put(TOKEN_VERSION_CLAIM, userApp.getTokenVersion());
+        return KEY_RING.sign(Jwts.builder().setClaims(claims).setId(UUID.randomUUID().toString()).setSubject(userApp.getUsername())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + ACCESS_TOKEN_VALIDITY)));
     }
 
     /**
@@ -168,4 +506,48 @@ public class JwtService extends OncePerRequestFilter {
         }
 
     }
+
+    /**
+     * Issues a new refresh token for a user who just logged in, in an HTTP-only cookie.
+     *
+     * @param userApp the authenticated user
+     * @return ResponseCookie with the refresh token
+     */
+    public ResponseCookie createRefreshCookie(UserApp userApp) {
+        return refreshCookie(refreshTokenService.issue(userApp));
+    }
+
+    /**
+     * Creates the cookie holding a new access token.
+     *
+     * @param token the access token
+     * @return ResponseCookie with the access token
+     */
+    public static ResponseCookie accessCookie(String token) {
+        return ResponseCookie.from(COOKIE_NAME, token).httpOnly(true).path("/").build();
+    }
+
+    /**
+     * Creates the cookie holding a refresh token, kept by the browser until the token expires.
+     *
+     * @param refreshToken the refresh token
+     * @return ResponseCookie with the refresh token
+     */
+    public static ResponseCookie refreshCookie(RefreshTokenService.IssuedToken refreshToken) {
+        return ResponseCookie.from(REFRESH_COOKIE_NAME, refreshToken.token()).httpOnly(true).path("/")
+                .maxAge(Duration.between(Instant.now(), refreshToken.expiresAt())).build();
+    }
+
+    /**
+     * Creates the cookie removing the refresh token from the browser.
+     *
+     * @return the expired refresh token cookie
+     */
+    public static ResponseCookie expiredRefreshCookie() {
+        return expiredCookie(REFRESH_COOKIE_NAME);
+    }
+
+    private static ResponseCookie expiredCookie(String name) {
+        return ResponseCookie.from(name, "").httpOnly(true).path("/").maxAge(0).build();
+    }
 }
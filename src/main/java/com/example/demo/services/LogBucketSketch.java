@@ -0,0 +1,178 @@
+package com.example.demo.services;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Quantile sketch with relative accuracy guarantees (the DDSketch scheme): positive values are counted in
+ * logarithmic buckets, bucket i holding the values in (gamma^(i-1), gamma^i] with gamma = (1 + a) / (1 - a),
+ * so that every quantile is answered within a relative error a of an actual value.
+ * Values can be removed as well as added, and sketches of the same accuracy merge by adding their bucket counts,
+ * which gives exactly the sketch of the combined values: nodes can combine their distributions from
+ * {@link #getBins()} and {@link #getZeroCount()} (see {@link #of}).
+ * The number of buckets only depends on the range of the values (about 230 per factor of 10 for a = 1%).
+ * Values that are not positive are counted apart and answered as 0. Not thread-safe.
+ */
+public class LogBucketSketch {
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    /** Bucket index to the number of values in the bucket, without empty buckets */
+    private final NavigableMap<Integer, Long> bins = new TreeMap<>();
+    private long zeroCount;
+    private long count;
+
+    /**
+     * Creates an empty sketch.
+     * @param relativeAccuracy the maximum relative error of the quantiles, between 0 and 1 exclusive
+     */
+    public LogBucketSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("The relative accuracy must be between 0 and 1 exclusive");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Rebuilds a sketch from the state published by another one, e.g. by another node.
+     * @param relativeAccuracy the relative accuracy of the published sketch
+     * @param zeroCount the number of values that are not positive
+     * @param bins the bucket counts, by bucket index
+     * @return the sketch
+     */
+    public static LogBucketSketch of(double relativeAccuracy, long zeroCount, Map<Integer, Long> bins) {
+        LogBucketSketch sketch = new LogBucketSketch(relativeAccuracy);
+        sketch.zeroCount = zeroCount;
+        sketch.count = zeroCount;
+        bins.forEach((index, binCount) -> {
+            if (binCount > 0) {
+                sketch.bins.put(index, binCount);
+                sketch.count += binCount;
+            }
+        });
+        return sketch;
+    }
+
+    /**
+     * Counts a value.
+     * @param value the value
+     */
+    public void add(double value) {
+        if (value > 0) {
+            bins.merge(index(value), 1L, Long::sum);
+        } else {
+            zeroCount++;
+        }
+        count++;
+    }
+
+    /**
+     * Forgets a value that was counted before.
+     * @param value the value
+     * @return false if no value of its bucket was counted, which leaves the sketch unchanged
+     */
+    public boolean remove(double value) {
+        if (value > 0) {
+            int index = index(value);
+            Long binCount = bins.get(index);
+            if (binCount == null) {
+                return false;
+            }
+            if (binCount == 1) {
+                bins.remove(index);
+            } else {
+                bins.put(index, binCount - 1);
+            }
+        } else {
+            if (zeroCount == 0) {
+                return false;
+            }
+            zeroCount--;
+        }
+        count--;
+        return true;
+    }
+
+    /**
+     * Adds the values of another sketch to this one.
+     * @param other a sketch with the same relative accuracy
+     * @throws IllegalArgumentException if the accuracies differ, as their buckets do not line up
+     */
+    public void merge(LogBucketSketch other) {
+        if (Double.compare(relativeAccuracy, other.relativeAccuracy) != 0) {
+            throw new IllegalArgumentException("Cannot merge sketches of relative accuracy "
+                    + relativeAccuracy + " and " + other.relativeAccuracy);
+        }
+        other.bins.forEach((index, binCount) -> bins.merge(index, binCount, Long::sum));
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    /**
+     * Returns the value at the given quantile, within the relative accuracy of a value of that rank.
+     * @param quantile the quantile, between 0 and 1
+     * @return the estimated value, NaN if the sketch is empty
+     */
+    public double quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("The quantile must be between 0 and 1");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (quantile * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (Map.Entry<Integer, Long> bin : bins.entrySet()) {
+            seen += bin.getValue();
+            if (rank < seen) {
+                return 2 * Math.pow(gamma, bin.getKey()) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, bins.lastKey()) / (gamma + 1);
+    }
+
+    /**
+     * Returns the number of values counted.
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the maximum relative error of the quantiles.
+     * @return the relative accuracy
+     */
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Returns the number of values that are not positive.
+     * @return the count of the zero bucket
+     */
+    public long getZeroCount() {
+        return zeroCount;
+    }
+
+    /**
+     * Returns a copy of the non-empty bucket counts.
+     * @return the bucket counts, by increasing bucket index
+     */
+    public SortedMap<Integer, Long> getBins() {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(bins));
+    }
+
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferAggregates;
+import com.example.demo.dto.OfferSummary;
+import com.example.demo.repositories.JobOfferRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory aggregates of the job offers: offers per company and per owner, and salary minimum, maximum,
+ * average and percentiles. They are computed from one scan of {@link JobOfferRepository} at startup and then
+ * updated incrementally from {@link OffersChangedEvent}s (a deleted offer is subtracted with the values
+ * the event carries), so reading them costs the same whatever the number of offers.
+ * Counts are kept ranked as they change, so the top companies and owners are read without sorting;
+ * percentiles come from a {@link LogBucketSketch}, whose state can be returned for merging with other nodes.
+ */
+@Component
+public class OfferAggregator {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    @Autowired
+    JobOfferRepository jobOfferRepository;
+
+    /** Maximum relative error of the salary percentiles */
+    @Value("${offers.aggregates.relative-accuracy:0.01}")
+    double relativeAccuracy;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RankedCounts companies = new RankedCounts();
+    private final RankedCounts owners = new RankedCounts();
+    /** Salary to the number of offers with that salary, for the exact minimum and maximum */
+    private final NavigableMap<Double, Long> salaries = new TreeMap<>();
+    private LogBucketSketch salarySketch;
+    private long count;
+    private long salaryCount;
+    private double salarySum;
+
+    /**
+     * Recomputes the aggregates from the database, reading the offers in keyset-paginated batches.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            companies.clear();
+            owners.clear();
+            salaries.clear();
+            salarySketch = new LogBucketSketch(relativeAccuracy);
+            count = 0;
+            salaryCount = 0;
+            salarySum = 0;
+            long cursor = 0;
+            List<OfferSummary> batch;
+            do {
+                batch = jobOfferRepository.scanSummariesAfter(cursor, Limit.of(REBUILD_BATCH_SIZE));
+                for (OfferSummary offer : batch) {
+                    add(offer);
+                    cursor = offer.id();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies created and deleted offers to the aggregates.
+     * @param event the change that happened
+     */
+    @EventListener
+    public void onOffersChanged(OffersChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.deleted().forEach(this::remove);
+            event.created().forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the current aggregates.
+     * @param top the number of companies and owners to return
+     * @param percentiles the salary percentiles to estimate, between 0 and 100
+     * @param includeSketch whether to return the state of the percentile sketch
+     * @return the aggregates
+     */
+    public OfferAggregates getAggregates(int top, List<Double> percentiles, boolean includeSketch) {
+        lock.readLock().lock();
+        try {
+            Map<String, Double> salaryPercentiles = new LinkedHashMap<>();
+            for (double percentile : percentiles) {
+                String key = "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+                salaryPercentiles.put(key, salaryCount == 0 ? null : salarySketch.quantile(percentile / 100));
+            }
+            OfferAggregates.Salary salary = new OfferAggregates.Salary(salaryCount,
+                    salaryCount == 0 ? null : salaries.firstKey(),
+                    salaryCount == 0 ? null : salaries.lastKey(),
+                    salaryCount == 0 ? null : salarySum / salaryCount,
+                    salaryPercentiles, relativeAccuracy,
+                    includeSketch ? new OfferAggregates.Sketch(salarySketch.getZeroCount(), salarySketch.getBins()) : null);
+            return new OfferAggregates(count, salary, companies.top(top), companies.size(), owners.top(top), owners.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts an offer. Must be called under the write lock.
+     */
+    private void add(OfferSummary offer) {
+        count++;
+        companies.increment(offer.company());
+        owners.increment(offer.owner() != null ? offer.owner().username() : null);
+        if (offer.salary() != null) {
+            salaryCount++;
+            salarySum += offer.salary();
+            salaries.merge(offer.salary(), 1L, Long::sum);
+            salarySketch.add(offer.salary());
+        }
+    }
+
+    /**
+     * Subtracts an offer counted before. Must be called under the write lock.
+     */
+    private void remove(OfferSummary offer) {
+        count--;
+        companies.decrement(offer.company());
+        owners.decrement(offer.owner() != null ? offer.owner().username() : null);
+        Double salary = offer.salary();
+        if (salary != null && salaries.containsKey(salary)) {
+            salaries.computeIfPresent(salary, (value, n) -> n == 1 ? null : n - 1);
+            salarySketch.remove(salary);
+            salaryCount--;
+            salarySum -= salary;
+        }
+    }
+
+    /**
+     * Counts by name, kept ordered by decreasing count (then by name) as they change.
+     * Not thread-safe.
+     */
+    private static final class RankedCounts {
+
+        private static final Comparator<OfferAggregates.Count> RANKING = Comparator
+                .comparingLong(OfferAggregates.Count::count).reversed()
+                .thenComparing(OfferAggregates.Count::name, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final Map<String, OfferAggregates.Count> counts = new HashMap<>();
+        private final NavigableSet<OfferAggregates.Count> ranking = new TreeSet<>(RANKING);
+
+        private void increment(String name) {
+            OfferAggregates.Count current = counts.get(name);
+            set(name, current, current == null ? 1 : current.count() + 1);
+        }
+
+        private void decrement(String name) {
+            OfferAggregates.Count current = counts.get(name);
+            if (current != null) {
+                set(name, current, current.count() - 1);
+            }
+        }
+
+        private void set(String name, OfferAggregates.Count current, long count) {
+            if (current != null) {
+                ranking.remove(current);
+            }
+            if (count > 0) {
+                OfferAggregates.Count updated = new OfferAggregates.Count(name, count);
+                counts.put(name, updated);
+                ranking.add(updated);
+            } else {
+                counts.remove(name);
+            }
+        }
+
+        private List<OfferAggregates.Count> top(int limit) {
+            List<OfferAggregates.Count> top = new ArrayList<>(Math.min(limit, ranking.size()));
+            Iterator<OfferAggregates.Count> iterator = ranking.iterator();
+            while (top.size() < limit && iterator.hasNext()) {
+                top.add(iterator.next());
+            }
+            return top;
+        }
+
+        private int size() {
+            return counts.size();
+        }
+
+        private void clear() {
+            counts.clear();
+            ranking.clear();
+        }
+    }
+}
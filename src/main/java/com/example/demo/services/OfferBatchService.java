@@ -0,0 +1,64 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferSummary;
+import com.example.demo.models.JobOffer;
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.JobOfferRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Service creating and deleting job offers in bulk, one transaction per batch.
+ * Inserts are sent as JDBC batches (see hibernate.jdbc.batch_size) and deletions
+ * as a single statement, after checking ownership of all the offers at once.
+ */
+@Service
+public class OfferBatchService {
+
+    @Autowired
+    JobOfferRepository jobOfferRepository;
+
+    /**
+     * Creates job offers owned by the given user.
+     * @param offers the offers to create
+     * @param owner the user creating the offers
+     * @return the created offers
+     */
+    @Transactional
+    public List<OfferSummary> createAll(List<JobOffer> offers, UserApp owner) {
+        for (JobOffer offer : offers) {
+            offer.setId(null);
+            offer.setOwner(owner);
+        }
+        return jobOfferRepository.saveAll(offers).stream().map(OfferSummary::of).toList();
+    }
+
+    /**
+     * Deletes the offers with the given ids. Unless the user is an admin, every offer must belong
+     * to them; otherwise nothing is deleted.
+     * @param ids the ids of the offers to delete
+     * @param currentUser the user asking for the deletion
+     * @param isAdmin whether the user may delete any offer
+     * @return the offers that were deleted
+     * @throws AccessDeniedException if one of the offers belongs to someone else
+     */
+    @Transactional
+    public List<OfferSummary> deleteAll(List<Long> ids, UserApp currentUser, boolean isAdmin) {
+        List<OfferSummary> offers = jobOfferRepository.findSummariesByIdIn(ids);
+        if (!isAdmin) {
+            for (OfferSummary offer : offers) {
+                if (offer.owner() == null || !offer.owner().id().equals(currentUser.getId())) {
+                    throw new AccessDeniedException("You can only delete your own job offers");
+                }
+            }
+        }
+        if (!offers.isEmpty()) {
+            jobOfferRepository.deleteAllByIdInBatch(offers.stream().map(OfferSummary::id).toList());
+        }
+        return offers;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferSummary;
+import com.example.demo.models.JobOffer;
+import com.example.demo.repositories.JobOfferRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Service exporting every job offer as JSON while keeping memory usage flat.
+ * Offers are read through a forward-only cursor and written one by one to the output stream;
+ * the persistence context is cleared after every fetched batch so managed entities never pile up.
+ */
+@Service
+public class OfferExportService {
+
+    @Autowired
+    JobOfferRepository jobOfferRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    /**
+     * Writes all job offers to the given stream.
+     * @param outputStream the stream receiving the export, typically the HTTP response body
+     * @param jsonLines true for JSON Lines (one offer per line), false for a single JSON array
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public void export(OutputStream outputStream, boolean jsonLines) throws IOException {
+        try (Stream<JobOffer> offers = jobOfferRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            if (jsonLines) {
+                generator.setRootValueSeparator(null);
+            } else {
+                generator.writeStartArray();
+            }
+
+            int count = 0;
+            Iterator<JobOffer> iterator = offers.iterator();
+            while (iterator.hasNext()) {
+                generator.writeObject(OfferSummary.of(iterator.next()));
+                if (jsonLines) {
+                    generator.writeRaw('\n');
+                }
+                if (++count % JobOfferRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                    generator.flush();
+                }
+            }
+
+            if (!jsonLines) {
+                generator.writeEndArray();
+            }
+        }
+    }
+}
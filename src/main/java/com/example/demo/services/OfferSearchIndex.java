@@ -0,0 +1,315 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferSearchResult;
+import com.example.demo.dto.OfferSummary;
+import com.example.demo.repositories.JobOfferRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-process search index over the job offers.
+ * Keeps an inverted index of the terms of each offer's title, company and description
+ * (sorted, so that query terms also match as prefixes) and a sorted index of salaries for range filters.
+ * The index is built from {@link JobOfferRepository} at startup and then updated incrementally
+ * from {@link OffersChangedEvent}s, so searching never touches the database.
+ */
+@Component
+public class OfferSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float COMPANY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    /** Weight factor of a term only matched as a prefix, compared to an exact match */
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    /** A salary range matching less than 1 offer in this many is paged from the salary index instead of in id order */
+    private static final int SPARSE_RANGE_FACTOR = 8;
+    /** Order of the search results: best score first, then by id */
+    private static final Comparator<Map.Entry<Long, Float>> RANKING = Map.Entry.<Long, Float>comparingByValue()
+            .reversed().thenComparing(Map.Entry.comparingByKey());
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    @Autowired
+    JobOfferRepository jobOfferRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Indexed offers by id, in id order so that unranked results are paged without sorting */
+    private final NavigableMap<Long, OfferSummary> offers = new TreeMap<>();
+    /** Terms of each indexed offer, needed to remove it from the postings */
+    private final Map<Long, Set<String>> offerTerms = new HashMap<>();
+    /** Term to offer id to weight */
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    /** Salary to ids of the offers with that salary */
+    private final NavigableMap<Double, Set<Long>> salaries = new TreeMap<>();
+
+    /**
+     * Rebuilds the whole index from the database, reading the offers in keyset-paginated batches.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            offers.clear();
+            offerTerms.clear();
+            postings.clear();
+            salaries.clear();
+            long cursor = 0;
+            List<OfferSummary> batch;
+            do {
+                batch = jobOfferRepository.scanSummariesAfter(cursor, Limit.of(REBUILD_BATCH_SIZE));
+                for (OfferSummary offer : batch) {
+                    add(offer);
+                    cursor = offer.id();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies created and deleted offers to the index.
+     * @param event the change that happened
+     */
+    @EventListener
+    public void onOffersChanged(OffersChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.deleted().forEach(offer -> remove(offer.id()));
+            event.created().forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the offers. Every query term must match a term of the offer, either exactly or as a prefix;
+     * offers are ranked by the weight of their matches (title, then company, then description).
+     * Without query terms, every offer in the salary range matches, in id order.
+     * Unranked pages are read in id order without collecting the matches, and ranked pages only keep
+     * the best (page + 1) * size matches, so no request sorts the whole index.
+     * @param query the search text, may be blank
+     * @param minSalary the minimum salary (inclusive), null for no lower bound
+     * @param maxSalary the maximum salary (inclusive), null for no upper bound
+     * @param page the index of the page, starting at 0
+     * @param size the page size
+     * @return the requested page of matching offers
+     */
+    public OfferSearchResult search(String query, Double minSalary, Double maxSalary, int page, int size) {
+        List<String> queryTerms = tokenize(query).stream().distinct().toList();
+        double from = minSalary != null ? minSalary : Double.NEGATIVE_INFINITY;
+        double to = maxSalary != null ? maxSalary : Double.POSITIVE_INFINITY;
+        boolean salaryFiltered = minSalary != null || maxSalary != null;
+        long offset = (long) page * size;
+        lock.readLock().lock();
+        try {
+            if (queryTerms.isEmpty()) {
+                return salaryFiltered ? salaryPage(from, to, offset, page, size)
+                        : new OfferSearchResult(idOrderPage(offers.values(), null, offset, size), offers.size(), page, size);
+            }
+            Map<Long, Float> scores = matchTerms(queryTerms);
+            if (salaryFiltered) {
+                scores.keySet().removeIf(id -> !inRange(offers.get(id), from, to));
+            }
+            return new OfferSearchResult(rankedPage(scores, offset, size), scores.size(), page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Pages, in id order, the offers whose salary is in range. Must be called under the read lock.
+     * A range holding a small share of the offers is read from the salary index; otherwise the offers are
+     * walked in id order, where about one in {@value #SPARSE_RANGE_FACTOR} offers or more is a match.
+     */
+    private OfferSearchResult salaryPage(double from, double to, long offset, int page, int size) {
+        if (from > to) {
+            return new OfferSearchResult(List.of(), 0, page, size);
+        }
+        NavigableMap<Double, Set<Long>> range = salaries.subMap(from, true, to, true);
+        int total = 0;
+        for (Set<Long> ids : range.values()) {
+            total += ids.size();
+        }
+        if (offset >= total) {
+            return new OfferSearchResult(List.of(), total, page, size);
+        }
+        if ((long) total * SPARSE_RANGE_FACTOR >= offers.size()) {
+            return new OfferSearchResult(idOrderPage(offers.values(), offer -> inRange(offer, from, to), offset, size),
+                    total, page, size);
+        }
+        // Sparse range: keep the lowest offset + size ids, the largest on top of the heap
+        int keep = (int) Math.min(offset + size, total);
+        PriorityQueue<Long> lowestIds = new PriorityQueue<>(keep, Comparator.reverseOrder());
+        for (Set<Long> ids : range.values()) {
+            for (Long id : ids) {
+                if (lowestIds.size() < keep) {
+                    lowestIds.add(id);
+                } else if (id < lowestIds.peek()) {
+                    lowestIds.poll();
+                    lowestIds.add(id);
+                }
+            }
+        }
+        List<Long> sortedIds = new ArrayList<>(lowestIds);
+        sortedIds.sort(null);
+        List<OfferSummary> items = new ArrayList<>(sortedIds.size() - (int) offset);
+        for (Long id : sortedIds.subList((int) offset, sortedIds.size())) {
+            items.add(offers.get(id));
+        }
+        return new OfferSearchResult(items, total, page, size);
+    }
+
+    /**
+     * Skips the first offset matching offers of an id-ordered collection and returns the next size ones.
+     * Must be called under the read lock.
+     */
+    private static List<OfferSummary> idOrderPage(Collection<OfferSummary> ordered, Predicate<OfferSummary> filter,
+                                                  long offset, int size) {
+        List<OfferSummary> items = new ArrayList<>(size);
+        long skipped = 0;
+        for (OfferSummary offer : ordered) {
+            if (filter != null && !filter.test(offer)) {
+                continue;
+            }
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            items.add(offer);
+            if (items.size() == size) {
+                break;
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Returns one page of the scored offers, best first then by id, keeping only the best
+     * offset + size entries in a bounded heap. Must be called under the read lock.
+     */
+    private List<OfferSummary> rankedPage(Map<Long, Float> scores, long offset, int size) {
+        if (offset >= scores.size()) {
+            return List.of();
+        }
+        int keep = (int) Math.min(offset + size, scores.size());
+        // The worst of the kept entries on top, so that it is the one replaced
+        PriorityQueue<Map.Entry<Long, Float>> best = new PriorityQueue<>(keep, RANKING.reversed());
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            if (best.size() < keep) {
+                best.add(entry);
+            } else if (RANKING.compare(entry, best.peek()) < 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<OfferSummary> items = new ArrayList<>(ranked.size() - (int) offset);
+        for (Map.Entry<Long, Float> entry : ranked.subList((int) offset, ranked.size())) {
+            items.add(offers.get(entry.getKey()));
+        }
+        return items;
+    }
+
+    private static boolean inRange(OfferSummary offer, double from, double to) {
+        return offer.salary() != null && offer.salary() >= from && offer.salary() <= to;
+    }
+
+    /**
+     * Scores the offers matching all query terms. Must be called under the read lock.
+     */
+    private Map<Long, Float> matchTerms(List<String> queryTerms) {
+        Map<Long, Float> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Long, Float> termScores = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Float>> posting
+                    : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+                float factor = posting.getKey().equals(queryTerm) ? 1f : PREFIX_FACTOR;
+                posting.getValue().forEach((id, weight) -> termScores.merge(id, weight * factor, Float::sum));
+            }
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((id, score) -> score + termScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Indexes an offer, replacing its previous version. Must be called under the write lock.
+     */
+    private void add(OfferSummary offer) {
+        remove(offer.id());
+        Map<String, Float> weights = new HashMap<>();
+        tokenize(offer.title()).forEach(term -> weights.merge(term, TITLE_WEIGHT, Float::sum));
+        tokenize(offer.company()).forEach(term -> weights.merge(term, COMPANY_WEIGHT, Float::sum));
+        tokenize(offer.description()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+
+        offers.put(offer.id(), offer);
+        offerTerms.put(offer.id(), weights.keySet());
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(offer.id(), weight));
+        if (offer.salary() != null) {
+            salaries.computeIfAbsent(offer.salary(), key -> new HashSet<>()).add(offer.id());
+        }
+    }
+
+    /**
+     * Removes an offer from the index. Must be called under the write lock.
+     */
+    private void remove(Long id) {
+        OfferSummary offer = offers.remove(id);
+        if (offer == null) {
+            return;
+        }
+        for (String term : offerTerms.remove(id)) {
+            Map<Long, Float> posting = postings.get(term);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        if (offer.salary() != null) {
+            Set<Long> ids = salaries.get(offer.salary());
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                salaries.remove(offer.salary());
+            }
+        }
+    }
+
+    /**
+     * Splits a text into lower-case terms without diacritics.
+     * @param text the text to tokenize, may be null
+     * @return the terms of the text, in order
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
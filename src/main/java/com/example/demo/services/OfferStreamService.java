@@ -0,0 +1,385 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferStreamEvent;
+import com.example.demo.dto.OfferSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service pushing the offers created and deleted on this node to the subscribers of GET /offers/stream,
+ * so that pages apply the changes instead of reloading the whole list.
+ * Every change of an {@link OffersChangedEvent} becomes one numbered {@link OfferStreamEvent}; the last ones
+ * are kept in a ring buffer so that a client reconnecting with a Last-Event-ID gets the events it missed,
+ * or a reset (reload everything) when they are no longer available. Ids start at the startup time in
+ * milliseconds, so ids handed out before a restart fall outside the buffer and also get a reset.
+ * Each subscriber has a bounded buffer: a subscriber that does not keep up is evicted, i.e. its stream is closed,
+ * and resumes from its last event id when it reconnects. Publishing therefore never waits for a client.
+ * A single thread sends the heartbeats of every subscriber, and blocking transports are written to
+ * by a small shared pool, so idle connections hold no thread. A client that stops reading blocks its write:
+ * once a write has lasted longer than the send timeout, the subscriber is evicted and its thread is left to the
+ * container's write timeout, the pool getting one more thread meanwhile so that the other subscribers keep theirs.
+ * Subscribers are published as the "offers.stream.subscribers" gauge, evictions as "offers.stream.evictions".
+ */
+@Service
+public class OfferStreamService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OfferStreamService.class);
+
+    private final int bufferSize;
+    private final int deliveryThreads;
+    private final long sendTimeoutNanos;
+    private final ScheduledExecutorService heartbeatScheduler;
+    private final ThreadPoolExecutor deliveryExecutor;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    /** Subscribers with a write in progress, including those already evicted for a full buffer */
+    private final Set<BufferedSubscriber> sending = ConcurrentHashMap.newKeySet();
+    private final Counter evictionCounter;
+
+    /** The last events, the one with id i at index i modulo the length; guarded by this */
+    private final OfferStreamEvent[] history;
+    /** Id of the first event published since startup; guarded by this */
+    private final long firstId;
+    /** Id of the last event published, firstId - 1 before the first one; guarded by this */
+    private long lastId;
+
+    /**
+     * Creates the service and schedules the heartbeats.
+     *
+     * @param historySize the number of events kept for the clients resuming after a disconnection
+     * @param bufferSize the number of events a subscriber may have pending before being evicted
+     * @param heartbeatInterval how often idle connections get a heartbeat
+     * @param deliveryThreads the number of threads writing to blocking transports
+     * @param sendTimeout how long a write to a blocking transport may last before its subscriber is evicted
+     * @param meterRegistry registry receiving the stream metrics
+     */
+    public OfferStreamService(@Value("${offers.stream.history-size:1000}") int historySize,
+                              @Value("${offers.stream.buffer-size:256}") int bufferSize,
+                              @Value("${offers.stream.heartbeat-interval:15s}") Duration heartbeatInterval,
+                              @Value("${offers.stream.delivery-threads:2}") int deliveryThreads,
+                              @Value("${offers.stream.send-timeout:10s}") Duration sendTimeout,
+                              MeterRegistry meterRegistry) {
+        this.history = new OfferStreamEvent[Math.max(1, historySize)];
+        this.bufferSize = Math.max(1, bufferSize);
+        this.deliveryThreads = Math.max(1, deliveryThreads);
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.firstId = System.currentTimeMillis();
+        this.lastId = firstId - 1;
+        this.evictionCounter = Counter.builder("offers.stream.evictions").register(meterRegistry);
+        Gauge.builder("offers.stream.subscribers", subscribers, Set::size).register(meterRegistry);
+        AtomicInteger deliveryThreadCount = new AtomicInteger();
+        this.deliveryExecutor = new ThreadPoolExecutor(this.deliveryThreads, this.deliveryThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "offer-stream-delivery-" + deliveryThreadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "offer-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        long checkInterval = Math.max(1, sendTimeout.toMillis() / 2);
+        heartbeatScheduler.scheduleWithFixedDelay(this::evictStuckSubscribers, checkInterval, checkInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closes every stream and stops the heartbeats.
+     */
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+        subscribers.clear();
+        deliveryExecutor.shutdown();
+    }
+
+    /**
+     * Numbers the created and deleted offers and pushes them to every subscriber.
+     * @param event the change that happened
+     */
+    @EventListener
+    public synchronized void onOffersChanged(OffersChangedEvent event) {
+        for (OfferSummary offer : event.created()) {
+            publish(OfferStreamEvent.CREATED, offer);
+        }
+        for (OfferSummary offer : event.deleted()) {
+            publish(OfferStreamEvent.DELETED, offer);
+        }
+    }
+
+    private void publish(String type, OfferSummary offer) {
+        OfferStreamEvent event = new OfferStreamEvent(++lastId, type, offer);
+        history[(int) Math.floorMod(lastId, (long) history.length)] = event;
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(event)) {
+                evict(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Registers a subscriber, after handing it the events that followed the client's last event:
+     * a reset when they are no longer all in the history or would not fit in its buffer.
+     * @param lastEventId the Last-Event-ID sent by a reconnecting client, null for a new client
+     * @param subscriber the subscriber, which must not block in {@link Subscriber#offer}
+     */
+    public synchronized void subscribe(Long lastEventId, Subscriber subscriber) {
+        if (lastEventId != null && lastEventId != lastId) {
+            long oldestId = Math.max(firstId, lastId - history.length + 1);
+            if (lastEventId < oldestId - 1 || lastEventId > lastId || lastId - lastEventId > bufferSize) {
+                subscriber.offer(new OfferStreamEvent(lastId, OfferStreamEvent.RESET, lastId));
+            } else {
+                for (long id = lastEventId + 1; id <= lastId; id++) {
+                    subscriber.offer(history[(int) Math.floorMod(id, (long) history.length)]);
+                }
+            }
+        }
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Registers a blocking transport, written to by the delivery threads through a buffer of the configured size.
+     * @param lastEventId the Last-Event-ID sent by a reconnecting client, null for a new client
+     * @param delivery the transport
+     * @return the subscriber to pass to {@link #unsubscribe} when the client goes away
+     */
+    public Subscriber subscribe(Long lastEventId, Delivery delivery) {
+        Subscriber subscriber = new BufferedSubscriber(delivery);
+        subscribe(lastEventId, subscriber);
+        return subscriber;
+    }
+
+    /**
+     * Forgets a subscriber whose client went away.
+     * @param subscriber the subscriber
+     */
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    /**
+     * Returns the number of events a subscriber may have pending.
+     * @return the subscriber buffer size
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Sends a heartbeat to every subscriber, evicting those whose buffer is still full.
+     */
+    synchronized void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(OfferStreamEvent.HEARTBEAT_EVENT)) {
+                evict(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Evicts the subscribers whose current write has lasted longer than the send timeout,
+     * adding a delivery thread for each of the writes left behind.
+     */
+    void evictStuckSubscribers() {
+        long now = System.nanoTime();
+        for (BufferedSubscriber subscriber : sending) {
+            if (subscriber.abandonIfStuck(now)) {
+                evict(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of threads of the delivery pool, the configured ones plus one per abandoned write.
+     * @return the pool size
+     */
+    int getDeliveryPoolSize() {
+        synchronized (deliveryExecutor) {
+            return deliveryExecutor.getCorePoolSize();
+        }
+    }
+
+    private void resizeDeliveryPool(int delta) {
+        synchronized (deliveryExecutor) {
+            int size = deliveryExecutor.getCorePoolSize() + delta;
+            // The maximum must stay at least the core size at each step
+            if (delta > 0) {
+                deliveryExecutor.setMaximumPoolSize(size);
+                deliveryExecutor.setCorePoolSize(size);
+            } else {
+                deliveryExecutor.setCorePoolSize(size);
+                deliveryExecutor.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            evictionCounter.increment();
+            try {
+                subscriber.close();
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not close an evicted offer stream", e);
+            }
+        }
+    }
+
+    /**
+     * Receiver of the stream events. Calls are serialized by the service.
+     */
+    public interface Subscriber {
+
+        /**
+         * Queues an event without blocking.
+         * @param event the event, or {@link OfferStreamEvent#HEARTBEAT_EVENT}
+         * @return false if the subscriber's buffer is full, which evicts it
+         */
+        boolean offer(OfferStreamEvent event);
+
+        /**
+         * Ends the stream of an evicted subscriber, without blocking.
+         */
+        void close();
+    }
+
+    /**
+     * Blocking transport, e.g. a servlet SseEmitter. Called by one delivery thread at a time.
+     */
+    public interface Delivery {
+
+        /**
+         * Writes an event to the client.
+         * @param event the event, or {@link OfferStreamEvent#HEARTBEAT_EVENT}
+         * @throws IOException if the client went away
+         */
+        void send(OfferStreamEvent event) throws IOException;
+
+        /**
+         * Ends the stream.
+         */
+        void close();
+    }
+
+    /**
+     * Subscriber queueing the events of a blocking transport and writing them on the delivery threads.
+     */
+    private final class BufferedSubscriber implements Subscriber, Runnable {
+
+        private static final int IDLE = 0;
+        private static final int SENDING = 1;
+        private static final int ABANDONED = 2;
+
+        private final Delivery delivery;
+        private final Queue<OfferStreamEvent> queue = new ArrayBlockingQueue<>(bufferSize);
+        /** Whether a delivery thread is, or is about to be, draining the queue */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        /** Whether a write is in progress, or was given up by {@link #abandonIfStuck} */
+        private final AtomicInteger sendState = new AtomicInteger(IDLE);
+        private volatile long sendStartedAt;
+        private volatile boolean closed;
+
+        private BufferedSubscriber(Delivery delivery) {
+            this.delivery = delivery;
+        }
+
+        @Override
+        public boolean offer(OfferStreamEvent event) {
+            if (!queue.offer(event)) {
+                return false;
+            }
+            schedule();
+            return true;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    deliveryExecutor.execute(this);
+                } catch (RuntimeException e) {
+                    // Rejected during shutdown: the container closes the connections
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Gives up the write in progress if it has lasted longer than the send timeout: the pool gets a thread
+         * to replace the one blocked in it, until the write returns.
+         * @return true if the write was abandoned, the subscriber must then be evicted
+         */
+        private boolean abandonIfStuck(long now) {
+            if (sendState.get() != SENDING || now - sendStartedAt <= sendTimeoutNanos
+                    || !sendState.compareAndSet(SENDING, ABANDONED)) {
+                return false;
+            }
+            resizeDeliveryPool(1);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                OfferStreamEvent event;
+                while (!closed && (event = queue.poll()) != null) {
+                    sendStartedAt = System.nanoTime();
+                    sendState.set(SENDING);
+                    sending.add(this);
+                    try {
+                        delivery.send(event);
+                    } finally {
+                        sending.remove(this);
+                        if (!sendState.compareAndSet(SENDING, IDLE)) {
+                            // Abandoned meanwhile: give back the thread added in its place
+                            resizeDeliveryPool(-1);
+                            closed = true;
+                        }
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.debug("Offer stream client went away", e);
+                unsubscribe(this);
+                closed = true;
+            }
+            if (closed) {
+                queue.clear();
+                delivery.close();
+                return;
+            }
+            scheduled.set(false);
+            // An event queued, or a close requested, after the checks above but before the flag was cleared found it set
+            if (closed || !queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferSummary;
+
+import java.util.List;
+
+/**
+ * Application event published after job offers have been created or deleted.
+ * In-memory views of the offers (snapshot, search index, ...) listen to it to stay up to date.
+ *
+ * @param created the offers that were created
+ * @param deleted the offers that were deleted, as they were before deletion
+ */
+public record OffersChangedEvent(List<OfferSummary> created, List<OfferSummary> deleted) {
+
+    /**
+     * Builds the event for newly created offers.
+     * @param offers the created offers
+     * @return the event
+     */
+    public static OffersChangedEvent created(List<OfferSummary> offers) {
+        return new OffersChangedEvent(offers, List.of());
+    }
+
+    /**
+     * Builds the event for deleted offers.
+     * @param offers the deleted offers
+     * @return the event
+     */
+    public static OffersChangedEvent deleted(List<OfferSummary> offers) {
+        return new OffersChangedEvent(List.of(), offers);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Versioned, pre-serialized snapshot of the offers pages served by GET /offers.
+ * Each page is serialized to JSON once, together with a gzip variant, and tagged with
+ * the current version of the offers; repeat reads neither query the database nor serialize.
+ * The version is bumped on every {@link OffersChangedEvent}, which makes every
+ * previously built page obsolete.
+ * The ETags are a hash of the serialized page rather than the version, which restarts at 1 with the JVM and
+ * differs between nodes: a client revalidating against another process gets a 304 only for identical content.
+ */
+@Component
+public class OffersSnapshot {
+
+    private final AtomicLong version = new AtomicLong(1);
+    private final Cache<PageKey, SerializedPage> pages;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Creates the snapshot.
+     * @param objectMapper mapper used to serialize the pages
+     * @param maximumPages maximum number of serialized pages kept in memory
+     */
+    public OffersSnapshot(ObjectMapper objectMapper,
+                          @Value("${offers.snapshot.max-pages:256}") long maximumPages) {
+        this.objectMapper = objectMapper;
+        this.pages = Caffeine.newBuilder().maximumSize(maximumPages).build();
+    }
+
+    /**
+     * Returns the serialized page for the current version, building it on first access.
+     * @param cursor the cursor of the page
+     * @param limit the size of the page
+     * @param loader loads the page from the database when it is not in the snapshot yet
+     * @return the serialized page
+     */
+    public SerializedPage getPage(long cursor, int limit, Supplier<OfferPage> loader) {
+        // The version is read before loading, so a page built concurrently with a change is never older than its tag
+        long currentVersion = version.get();
+        return pages.get(new PageKey(currentVersion, cursor, limit), key -> serialize(key, loader.get()));
+    }
+
+    /**
+     * Returns the serialized page for the current version if it has already been built, without ever loading it.
+     * @param cursor the cursor of the page
+     * @param limit the size of the page
+     * @return the serialized page, or null if it is not in the snapshot
+     */
+    public SerializedPage getPageIfPresent(long cursor, int limit) {
+        return pages.getIfPresent(new PageKey(version.get(), cursor, limit));
+    }
+
+    /**
+     * Marks every serialized page as outdated once offers have been created or deleted.
+     * @param event the change that happened
+     */
+    @EventListener
+    public void onOffersChanged(OffersChangedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Marks every serialized page as outdated.
+     * @return the new version
+     */
+    public long invalidate() {
+        long newVersion = version.incrementAndGet();
+        pages.asMap().keySet().removeIf(key -> key.version() < newVersion);
+        return newVersion;
+    }
+
+    /**
+     * Returns the current version of the offers.
+     * @return the current version
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Tells whether the gzip representation of a page may be sent, from the codings and quality values of
+     * Accept-Encoding: gzip (or x-gzip) is acceptable unless its q is 0, and {@code *} covers it when it is not listed.
+     * @param acceptEncoding the Accept-Encoding header values, comma-separated; may be null
+     * @return true if the client accepts gzip
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parameters = element.split(";");
+            String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = quality(parameters) > 0;
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard != null && wildcard;
+    }
+
+    /**
+     * Returns the q parameter of an Accept-Encoding element, 1 when absent and 0 when malformed.
+     */
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i];
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && parameter.substring(0, equals).trim().equalsIgnoreCase("q")) {
+                try {
+                    return Double.parseDouble(parameter.substring(equals + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private SerializedPage serialize(PageKey key, OfferPage page) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(page);
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(json);
+            }
+            String tag = DigestUtils.md5DigestAsHex(json);
+            return new SerializedPage(json, gzipped.toByteArray(), "\"" + tag + "\"", "\"" + tag + "-gzip\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record PageKey(long version, long cursor, int limit) {
+    }
+
+    /**
+     * Immutable serialized page of offers.
+     * @param json the JSON body
+     * @param gzip the gzip-compressed JSON body
+     * @param etag strong ETag of the identity representation
+     * @param gzipEtag strong ETag of the gzip representation
+     */
+    public record SerializedPage(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+    }
+}
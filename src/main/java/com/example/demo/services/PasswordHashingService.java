@@ -0,0 +1,161 @@
+package com.example.demo.services;
+
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.UserAppRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Service running password hashing and verification on a dedicated, size-limited worker pool.
+ * Keeps the CPU-heavy BCrypt work off the servlet request threads: when both the workers and
+ * the bounded queue are busy, new work is rejected right away with a {@link RejectedExecutionException}
+ * instead of piling up, so login bursts cannot starve the rest of the application.
+ * Queue depth, active workers and hash latency are published as "password.hashing*" metrics.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    @Autowired
+    UserAppRepository userAppRepository;
+
+    @Autowired
+    UserAppCache userAppCache;
+
+    /** Spring's general-purpose task executor, which stores upgraded hashes so that no hashing worker waits on the database */
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    Executor persistenceExecutor;
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * Creates the worker pool.
+     * @param passwordEncoder the encoder doing the actual hashing
+     * @param threads number of worker threads, 0 for half of the available processors
+     * @param queueCapacity number of hashing tasks allowed to wait for a worker
+     * @param meterRegistry registry receiving the pool and latency metrics
+     */
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${security.password.hashing.threads:0}") int threads,
+                                  @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "password.hashing", List.of()).bindTo(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing.latency").tag("operation", "matches").register(meterRegistry);
+        this.encodeTimer = Timer.builder("password.hashing.latency").tag("operation", "encode").register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected").register(meterRegistry);
+    }
+
+    /**
+     * Verifies a raw password against its encoded form on the hashing pool.
+     * @param rawPassword the password to check
+     * @param encodedPassword the stored encoded password
+     * @return a future completed with true if the password matches
+     * @throws RejectedExecutionException if the hashing pool is saturated
+     */
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Encodes a raw password on the hashing pool.
+     * @param rawPassword the password to encode
+     * @return a future completed with the encoded password
+     * @throws RejectedExecutionException if the hashing pool is saturated
+     */
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Re-encodes a user's password in the background when its stored hash uses an outdated
+     * algorithm or work factor. Must only be called after the raw password has been verified.
+     * The new hash is stored off the hashing pool, by a conditional update that leaves a password
+     * changed in the meantime untouched. The upgrade is skipped when the hashing pool is saturated
+     * (it will be retried on a later login).
+     * @param userApp the user who just logged in
+     * @param rawPassword the verified raw password
+     * @return a future completed with true once the new hash is stored, false if it was not
+     */
+    public CompletableFuture<Boolean> upgradeIfOutdated(UserApp userApp, CharSequence rawPassword) {
+        String outdatedPassword = userApp.getPassword();
+        if (!passwordEncoder.upgradeEncoding(outdatedPassword)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        try {
+            return encode(rawPassword).thenApplyAsync(encodedPassword -> {
+                if (userAppRepository.updatePasswordIfUnchanged(userApp.getId(), outdatedPassword, encodedPassword) == 0) {
+                    return false;
+                }
+                userAppCache.invalidate(userApp.getUsername());
+                return true;
+            }, persistenceExecutor).exceptionally(e -> {
+                LOGGER.warn("Could not upgrade the password encoding of user {}", userApp.getUsername(), e);
+                return false;
+            });
+        } catch (RejectedExecutionException e) {
+            // Saturated: keep the current hash, the upgrade will happen on a later login
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(task);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the worker pool when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.demo.services;
+
+import com.example.demo.models.RefreshToken;
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.RefreshTokenRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service issuing and rotating the refresh tokens that re-issue the short-lived access tokens.
+ * A refresh token is an opaque random string whose hash is stored in the refresh_token table;
+ * each use rotates it, i.e. marks it used and issues a new one of the same family (login session).
+ * Parallel requests presenting the same refresh token (one browser loading several resources at once)
+ * share one rotation: its result is kept in memory for the grace period, as a future that the first caller
+ * completes outside of any cache lock while the others wait on it. A rotated token presented again
+ * after the grace period means it has leaked, so the whole family is revoked.
+ * Refreshes are counted as "jwt.refresh" (tag outcome: rotated, coalesced, rejected, reused).
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenVersionService tokenVersionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration validity;
+    private final Duration gracePeriod;
+    /** Recent and in-progress rotations, keyed by the hash of the refresh token they consumed */
+    private final AsyncCache<String, Rotation> recentRotations;
+    private final ScheduledExecutorService scheduler;
+    private final Counter rotatedCounter;
+    private final Counter coalescedCounter;
+    private final Counter rejectedCounter;
+    private final Counter reusedCounter;
+
+    /**
+     * Creates the service and schedules the purge of the expired tokens.
+     *
+     * @param refreshTokenRepository repository storing the refresh tokens
+     * @param tokenVersionService service checking that a coalesced rotation was not revoked since, by logout-all
+     * @param transactionManager transaction manager making each rotation atomic
+     * @param validity how long a refresh token stays usable, renewed on every rotation
+     * @param gracePeriod how long a rotated token still yields the result of its rotation
+     * @param purgeInterval how often the expired tokens are deleted
+     * @param meterRegistry registry receiving the refresh counters
+     */
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TokenVersionService tokenVersionService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${jwt.refresh-token.validity:7d}") Duration validity,
+                               @Value("${jwt.refresh-token.grace-period:30s}") Duration gracePeriod,
+                               @Value("${jwt.refresh-token.purge-interval:1h}") Duration purgeInterval,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenVersionService = tokenVersionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validity = validity;
+        this.gracePeriod = gracePeriod;
+        this.recentRotations = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(gracePeriod)
+                .buildAsync();
+        this.rotatedCounter = refreshCounter(meterRegistry, "rotated");
+        this.coalescedCounter = refreshCounter(meterRegistry, "coalesced");
+        this.rejectedCounter = refreshCounter(meterRegistry, "rejected");
+        this.reusedCounter = refreshCounter(meterRegistry, "reused");
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refresh-token-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purgeExpired, purgeInterval.toMillis(), purgeInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("jwt.refresh").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    /**
+     * Stops the periodic purge.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Issues the first refresh token of a new family, on login.
+     *
+     * @param userApp the authenticated user
+     * @return the refresh token
+     */
+    public IssuedToken issue(UserApp userApp) {
+        String token = newToken();
+        Instant expiresAt = Instant.now().plus(validity);
+        refreshTokenRepository.save(new RefreshToken(hash(token), UUID.randomUUID().toString(), userApp, expiresAt));
+        return new IssuedToken(token, expiresAt);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * Concurrent and repeated calls with the same token within the grace period return the same pair.
+     *
+     * @param refreshToken the refresh token presented by the client
+     * @return the new access and refresh tokens
+     * @throws BadCredentialsException if the token is unknown, revoked, outdated or reused
+     * @throws CredentialsExpiredException if the token has expired
+     */
+    public TokenPair refresh(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        CompletableFuture<Rotation> rotation = new CompletableFuture<>();
+        CompletableFuture<Rotation> existing = recentRotations.asMap().putIfAbsent(tokenHash, rotation);
+        try {
+            if (existing != null) {
+                // Rotated moments ago, or being rotated: wait for that rotation instead of starting another one
+                Rotation coalesced = await(existing);
+                if (!tokenVersionService.isCurrent(coalesced.userId(), coalesced.tokenVersion())) {
+                    throw new BadCredentialsException("Refresh token version is outdated");
+                }
+                coalescedCounter.increment();
+                return coalesced.tokens();
+            }
+            try {
+                rotation.complete(rotate(tokenHash));
+            } catch (RuntimeException e) {
+                // The cache drops the failed future, so the next attempt rotates (or rejects) again
+                rotation.completeExceptionally(e);
+                throw e;
+            }
+            return rotation.join().tokens();
+        } catch (BadCredentialsException | CredentialsExpiredException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+    }
+
+    private static Rotation await(CompletableFuture<Rotation> rotation) {
+        try {
+            return rotation.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Rotation rotate(String tokenHash) {
+        Instant now = Instant.now();
+        Rotation rotation = transactionTemplate.execute(status -> {
+            RefreshToken current = refreshTokenRepository.findByTokenHash(tokenHash)
+                    .orElseThrow(() -> new BadCredentialsException("Unknown refresh token"));
+            if (current.isRevoked()) {
+                throw new BadCredentialsException("Refresh token revoked");
+            }
+            if (!current.getExpiresAt().isAfter(now)) {
+                throw new CredentialsExpiredException("Refresh token expired");
+            }
+            UserApp userApp = current.getUser();
+            if (userApp.getTokenVersion() != current.getTokenVersion()) {
+                throw new BadCredentialsException("Refresh token version is outdated");
+            }
+            if (current.getRotatedAt() != null) {
+                if (current.getRotatedAt().plus(gracePeriod).isBefore(now)) {
+                    // Committed below, unlike an exception thrown from here
+                    refreshTokenRepository.revokeFamily(current.getFamilyId());
+                    return null;
+                }
+                // Rotated moments ago by another node: the sibling issued here is as valid
+            } else {
+                current.setRotatedAt(now);
+            }
+
+            String token = newToken();
+            RefreshToken next = new RefreshToken(hash(token), current.getFamilyId(), userApp, now.plus(validity));
+            refreshTokenRepository.save(next);
+            return new Rotation(current.getFamilyId(), userApp.getId(), userApp.getTokenVersion(),
+                    new TokenPair(JwtService.generateToken(userApp), new IssuedToken(token, next.getExpiresAt())));
+        });
+        if (rotation == null) {
+            reusedCounter.increment();
+            throw new BadCredentialsException("Refresh token reused, session revoked");
+        }
+        rotatedCounter.increment();
+        return rotation;
+    }
+
+    /**
+     * Revokes the family of a refresh token, on logout.
+     *
+     * @param refreshToken the refresh token presented by the client, may be null
+     */
+    public void revoke(String refreshToken) {
+        if (refreshToken == null) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(hash(refreshToken)).ifPresent(token -> {
+            refreshTokenRepository.revokeFamily(token.getFamilyId());
+            recentRotations.synchronous().asMap().values().removeIf(rotation -> rotation.familyId().equals(token.getFamilyId()));
+        });
+    }
+
+    private void purgeExpired() {
+        try {
+            int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+            LOGGER.debug("Purged {} expired refresh tokens", deleted);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not purge the expired refresh tokens", e);
+        }
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A refresh token handed to the client.
+     *
+     * @param token the opaque token
+     * @param expiresAt its expiration
+     */
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+
+    /**
+     * The tokens issued by a refresh.
+     *
+     * @param accessToken the new access token (a JWT)
+     * @param refreshToken the new refresh token
+     */
+    public record TokenPair(String accessToken, IssuedToken refreshToken) {
+    }
+
+    /** Result of a rotation, remembered for the grace period */
+    private record Rotation(String familyId, Integer userId, int tokenVersion, TokenPair tokens) {
+    }
+}
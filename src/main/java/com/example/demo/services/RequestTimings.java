@@ -0,0 +1,76 @@
+package com.example.demo.services;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Locale;
+
+/**
+ * Durations of the phases of the current servlet request, rendered as a Server-Timing header
+ * (e.g. {@code jwt-verify;dur=0.412, db;desc="2 calls";dur=1.734, total;dur=3.018}) so that they show up in the browser devtools.
+ * Only exists when the Server-Timing header is enabled, see {@link ServerTimingFilter}.
+ * A request is handled by one thread at a time, so no synchronization is needed.
+ */
+public class RequestTimings {
+
+    /** Request attribute holding the timings of the current request */
+    public static final String ATTRIBUTE = RequestTimings.class.getName();
+
+    private static final int MAX_PHASES = 16;
+
+    private final String[] names = new String[MAX_PHASES];
+    private final long[] durations = new long[MAX_PHASES];
+    private final int[] counts = new int[MAX_PHASES];
+    private int size;
+
+    /**
+     * Returns the timings of the request bound to the current thread.
+     * @return the timings, or null if the header is disabled or no servlet request is bound to this thread
+     */
+    public static RequestTimings current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null
+                ? (RequestTimings) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST)
+                : null;
+    }
+
+    /**
+     * Adds a duration to a phase; phases recorded several times are summed up and counted.
+     * @param phase the name of the phase (a Server-Timing metric name)
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(String phase, long nanos) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(phase)) {
+                durations[i] += nanos;
+                counts[i]++;
+                return;
+            }
+        }
+        if (size < MAX_PHASES) {
+            names[size] = phase;
+            durations[size] = nanos;
+            counts[size] = 1;
+            size++;
+        }
+    }
+
+    /**
+     * Renders the recorded phases as the value of a Server-Timing header, durations in milliseconds.
+     * @return the header value
+     */
+    public String toHeaderValue() {
+        StringBuilder header = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                header.append(", ");
+            }
+            header.append(names[i]);
+            if (counts[i] > 1) {
+                header.append(";desc=\"").append(counts[i]).append(" calls\"");
+            }
+            header.append(";dur=").append(String.format(Locale.ROOT, "%.3f", durations[i] / 1e6));
+        }
+        return header.toString();
+    }
+}
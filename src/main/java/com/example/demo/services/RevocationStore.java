@@ -0,0 +1,44 @@
+package com.example.demo.services;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Storage of the revoked token ids (the "jti" claim), each kept until the expiration of its token.
+ * The in-memory implementation only covers this node; the database one shares revocations between nodes.
+ * Only looked up by {@link TokenRevocationService} for the tokens its Bloom filter cannot rule out.
+ */
+public interface RevocationStore {
+
+    /**
+     * Revokes a token.
+     *
+     * @param tokenId the token's id
+     * @param expiresAt the token's expiration, after which the entry can be dropped
+     */
+    void revoke(String tokenId, Instant expiresAt);
+
+    /**
+     * Tells whether a token has been revoked.
+     *
+     * @param tokenId the token's id
+     * @param now the current time
+     * @return true if the token is revoked and not expired yet
+     */
+    boolean isRevoked(String tokenId, Instant now);
+
+    /**
+     * Lists the ids of the revoked tokens that have not expired yet.
+     *
+     * @param now the current time
+     * @return the revoked token ids
+     */
+    List<String> findActive(Instant now);
+
+    /**
+     * Drops the entries of the tokens that have expired.
+     *
+     * @param now the current time
+     */
+    void purgeExpired(Instant now);
+}
@@ -0,0 +1,83 @@
+package com.example.demo.services;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter adding a Server-Timing header with the per-phase breakdown of the request
+ * (JWT authentication phases, repository calls, total time), see {@link RequestTimings}.
+ * Disabled by default as it exposes internal timings; enable it with metrics.server-timing.enabled=true.
+ * It runs before the security filters so that the authentication phases are included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "metrics.server-timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    /** Header name, see https://www.w3.org/TR/server-timing/ */
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    /**
+     * Binds a {@link RequestTimings} to the request and writes the header when the response is committed,
+     * or once the chain returns if it has not been committed yet.
+     * @param request the HTTP request
+     * @param response the HTTP response
+     * @param filterChain the filter chain
+     * @throws ServletException if a servlet error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = new RequestTimings();
+        request.setAttribute(RequestTimings.ATTRIBUTE, timings);
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response, timings, System.nanoTime());
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            timedResponse.writeHeader();
+        }
+    }
+
+    /**
+     * Response writing the Server-Timing header right before it is committed, as headers cannot change afterwards.
+     */
+    private static final class ServerTimingResponse extends OnCommittedResponseWrapper {
+
+        private final RequestTimings timings;
+        private final long start;
+        private boolean written;
+
+        ServerTimingResponse(HttpServletResponse response, RequestTimings timings, long start) {
+            super(response);
+            this.timings = timings;
+            this.start = start;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeader();
+        }
+
+        void writeHeader() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            timings.record("total", System.nanoTime() - start);
+            setHeader(SERVER_TIMING, timings.toHeaderValue());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.services;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free, memory-bounded set of token buckets keyed by string (client IP, username, ...).
+ * <p>
+ * Each bucket is implemented with the generic cell rate algorithm: its whole state is a single
+ * "theoretical arrival time" held in an {@link AtomicLong} and updated by compare-and-set, which behaves
+ * exactly like a token bucket of the given capacity refilled at capacity tokens per period, without locks
+ * and without allocating on the hot path.
+ * <p>
+ * Buckets are spread over independent stripes, each holding at most its share of the maximum number of entries.
+ * A bucket whose tokens have all been refilled for longer than the idle timeout is indistinguishable from a new
+ * one, so it is evicted when its stripe is full. If a stripe is still full after eviction, new keys share the
+ * stripe's overflow bucket, so memory stays bounded even when flooded with distinct keys.
+ */
+public class TokenBucketLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final long idleTimeout;
+    private final int maxEntriesPerStripe;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+    private final AtomicLong[] overflowBuckets;
+
+    /**
+     * Creates the limiter.
+     * @param capacity the number of tokens of a full bucket (the allowed burst)
+     * @param period the time needed to refill a whole bucket
+     * @param maxEntries the maximum number of buckets kept in memory
+     * @param idleTimeout how long a full bucket is kept before it can be evicted
+     */
+    public TokenBucketLimiter(int capacity, Duration period, int maxEntries, Duration idleTimeout) {
+        this(capacity, period, maxEntries, idleTimeout, System::nanoTime);
+    }
+
+    @SuppressWarnings("unchecked")
+    TokenBucketLimiter(int capacity, Duration period, int maxEntries, Duration idleTimeout, LongSupplier nanoClock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.emissionInterval = Math.max(1, period.toNanos() / capacity);
+        this.burstTolerance = emissionInterval * (capacity - 1);
+        this.idleTimeout = idleTimeout.toNanos();
+        this.maxEntriesPerStripe = Math.max(1, (maxEntries + STRIPES - 1) / STRIPES);
+        this.nanoClock = nanoClock;
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        this.overflowBuckets = new AtomicLong[STRIPES];
+        long now = nanoClock.getAsLong();
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+            overflowBuckets[i] = new AtomicLong(now);
+        }
+    }
+
+    /**
+     * Takes one token from the bucket of a key.
+     * @param key the key whose bucket is used
+     * @return 0 if a token was taken, otherwise the number of nanoseconds until one is available
+     */
+    public long tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong bucket = bucket(key, now);
+        while (true) {
+            long theoreticalArrival = bucket.get();
+            long start = Math.max(theoreticalArrival, now);
+            long wait = start - now - burstTolerance;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(theoreticalArrival, start + emissionInterval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of buckets currently kept in memory, overflow buckets excluded.
+     * @return the number of buckets
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        int hash = key.hashCode();
+        int index = (hash ^ (hash >>> 16)) & (STRIPES - 1);
+        ConcurrentHashMap<String, AtomicLong> stripe = stripes[index];
+        AtomicLong bucket = stripe.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.size() >= maxEntriesPerStripe) {
+            stripe.values().removeIf(candidate -> candidate.get() + idleTimeout <= now);
+            if (stripe.size() >= maxEntriesPerStripe) {
+                return overflowBuckets[index];
+            }
+        }
+        // A new bucket starts full at the time of the request: reading the clock again could put its
+        // theoretical arrival after "now" and refuse the first request of a bucket of capacity 1
+        return stripe.computeIfAbsent(key, newKey -> new AtomicLong(now));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service revoking single tokens (by their "jti" claim) until they expire, e.g. on logout.
+ * Every authenticated request is checked, so the revoked ids are summarized in an in-memory {@link BloomFilter}
+ * in front of the {@link RevocationStore}: tokens that were never revoked, nearly all of them, are cleared
+ * without allocation, locking or I/O, and only the rare "maybe" answers are confirmed by the store.
+ * The filter is rebuilt periodically from the store, which drops the expired entries and picks up
+ * the revocations made on other nodes (with the database store); revocations made here apply at once.
+ * Revocation checks are published as "jwt.revocation.checks" (tag result: revoked, false-positive).
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevocationStore revocationStore;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+    private final ScheduledExecutorService scheduler;
+    private final Counter revokedCounter;
+    private final Counter falsePositiveCounter;
+
+    private volatile BloomFilter filter;
+    private volatile int size;
+    /** Revocations made while the filter is being rebuilt, added to the new filter; guarded by this */
+    private List<String> pendingRevocations;
+
+    /**
+     * Loads the revoked tokens and schedules the periodic rebuild of the filter.
+     *
+     * @param revocationStore where revocations are stored
+     * @param expectedEntries the number of revoked tokens the filter is sized for
+     * @param falsePositiveRate the rate of non-revoked tokens that still need a store lookup
+     * @param syncInterval how often the filter is rebuilt, which bounds how late another node's revocation is seen
+     * @param meterRegistry registry receiving the revocation metrics
+     */
+    public TokenRevocationService(RevocationStore revocationStore,
+                                  @Value("${jwt.revocation.expected-entries:100000}") long expectedEntries,
+                                  @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${jwt.revocation.sync-interval:30s}") Duration syncInterval,
+                                  MeterRegistry meterRegistry) {
+        this.revocationStore = revocationStore;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.revokedCounter = Counter.builder("jwt.revocation.checks").tag("result", "revoked").register(meterRegistry);
+        this.falsePositiveCounter = Counter.builder("jwt.revocation.checks").tag("result", "false-positive").register(meterRegistry);
+        Gauge.builder("jwt.revocation.entries", this, service -> service.size).register(meterRegistry);
+        rebuild();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-revocation-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sync, syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic rebuild.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Revokes a token until its expiration. Tokens without id cannot be revoked one by one,
+     * only all together through {@link TokenVersionService#revokeTokens}.
+     *
+     * @param tokenId the token's "jti" claim, may be null
+     * @param expiration the token's expiration
+     * @return true if the token has been revoked
+     */
+    public boolean revoke(String tokenId, Date expiration) {
+        if (tokenId == null || expiration == null) {
+            return false;
+        }
+        revocationStore.revoke(tokenId, expiration.toInstant());
+        synchronized (this) {
+            filter.put(tokenId);
+            if (pendingRevocations != null) {
+                pendingRevocations.add(tokenId);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether a token has been revoked. Only the ids the filter cannot rule out reach the store.
+     *
+     * @param tokenId the token's "jti" claim, may be null
+     * @return true if the token is revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        if (revocationStore.isRevoked(tokenId, Instant.now())) {
+            revokedCounter.increment();
+            return true;
+        }
+        falsePositiveCounter.increment();
+        return false;
+    }
+
+    /**
+     * Purges the expired revocations and rebuilds the filter from the store.
+     */
+    void sync() {
+        try {
+            revocationStore.purgeExpired(Instant.now());
+            rebuild();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not refresh the token revocation list, keeping the current one", e);
+            synchronized (this) {
+                pendingRevocations = null;
+            }
+        }
+    }
+
+    private void rebuild() {
+        synchronized (this) {
+            pendingRevocations = new ArrayList<>();
+        }
+        List<String> tokenIds = revocationStore.findActive(Instant.now());
+        // Sized for at least twice the current entries so that the false positive rate holds as revocations come in
+        BloomFilter next = new BloomFilter(Math.max(expectedEntries, 2L * tokenIds.size()), falsePositiveRate);
+        tokenIds.forEach(next::put);
+        synchronized (this) {
+            pendingRevocations.forEach(next::put);
+            pendingRevocations = null;
+            filter = next;
+            size = tokenIds.size();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.services;
+
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.UserAppRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Service tracking the current token version of each user.
+ * Every token carries the version of its user at issue time; bumping the version
+ * invalidates all tokens issued before, which is how role changes and forced logouts
+ * take effect. Versions are kept in memory so the per-request check needs no database access.
+ */
+@Service
+public class TokenVersionService {
+
+    private final UserAppRepository userAppRepository;
+    private final LoadingCache<Integer, Integer> versions;
+
+    /**
+     * Creates the service with a bounded in-memory view of the token versions.
+     *
+     * @param userAppRepository repository used to load a version the first time it is needed
+     * @param maximumSize maximum number of users whose version is kept in memory
+     * @param refreshInterval how long a version is trusted before being reloaded,
+     *                        which bounds how late a bump made on another node is seen
+     */
+    public TokenVersionService(@Lazy UserAppRepository userAppRepository,
+                               @Value("${jwt.token-version.max-size:100000}") long maximumSize,
+                               @Value("${jwt.token-version.ttl:60s}") Duration refreshInterval) {
+        this.userAppRepository = userAppRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(refreshInterval)
+                .build(userId -> this.userAppRepository.findById(userId)
+                        .map(UserApp::getTokenVersion)
+                        .orElse(null));
+    }
+
+    /**
+     * Checks whether a token version is still the current one for a user.
+     *
+     * @param userId the user's id
+     * @param tokenVersion the version carried by the token
+     * @return true if the token was issued for the user's current version
+     */
+    public boolean isCurrent(Integer userId, int tokenVersion) {
+        Integer currentVersion = versions.get(userId);
+        return currentVersion != null && currentVersion == tokenVersion;
+    }
+
+    /**
+     * Invalidates every token issued so far for a user, e.g. after a role change or a forced logout.
+     *
+     * @param userApp the user whose tokens must be invalidated
+     * @return the saved user with its new token version
+     */
+    public UserApp revokeTokens(UserApp userApp) {
+        userApp.setTokenVersion(userApp.getTokenVersion() + 1);
+        UserApp savedUser = userAppRepository.save(userApp);
+        versions.put(savedUser.getId(), savedUser.getTokenVersion());
+        return savedUser;
+    }
+}
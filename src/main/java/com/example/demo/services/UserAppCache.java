@@ -0,0 +1,97 @@
+package com.example.demo.services;
+
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.UserAppRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Near cache in front of {@link UserAppRepository#findByUsername(String)}.
+ * Uses Caffeine's size-bounded W-TinyLFU eviction and refreshes entries in the background
+ * after a while. Unknown usernames are cached as negative entries with a shorter lifetime
+ * so that forged subjects cannot hammer the database.
+ * Entries are invalidated by {@link UserAppCacheInvalidator} whenever a user is saved or deleted.
+ */
+@Component
+public class UserAppCache {
+
+    /** Name under which the cache statistics are exposed through Micrometer */
+    public static final String CACHE_NAME = "users.by-username";
+
+    private final LoadingCache<String, Optional<UserApp>> cache;
+
+    /**
+     * Creates the cache from application properties and registers its statistics.
+     *
+     * @param userAppRepository repository loading the users on cache misses and refreshes
+     * @param maximumSize maximum number of usernames kept in memory
+     * @param refreshAfterWrite age after which an entry is reloaded in the background on access
+     * @param timeToLive lifetime of an entry for an existing user
+     * @param negativeTimeToLive lifetime of an entry for an unknown username
+     * @param meterRegistry registry receiving the hit/miss/eviction counters
+     */
+    public UserAppCache(@Lazy UserAppRepository userAppRepository,
+                        @Value("${users.cache.max-size:10000}") long maximumSize,
+                        @Value("${users.cache.refresh-after-write:1m}") Duration refreshAfterWrite,
+                        @Value("${users.cache.ttl:10m}") Duration timeToLive,
+                        @Value("${users.cache.negative-ttl:30s}") Duration negativeTimeToLive,
+                        MeterRegistry meterRegistry) {
+        long positiveNanos = timeToLive.toNanos();
+        long negativeNanos = negativeTimeToLive.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfter(new Expiry<String, Optional<UserApp>>() {
+                    @Override
+                    public long expireAfterCreate(String key, Optional<UserApp> value, long currentTime) {
+                        return value.isPresent() ? positiveNanos : negativeNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Optional<UserApp> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Optional<UserApp> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build(userAppRepository::findByUsername);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Finds a user by username, going to the database only on a cache miss.
+     *
+     * @param username the username to search for
+     * @return Optional containing the user if found, empty otherwise
+     */
+    public Optional<UserApp> findByUsername(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return cache.get(username);
+    }
+
+    /**
+     * Removes the cached entry of a username.
+     *
+     * @param username the username whose entry must be dropped
+     */
+    public void invalidate(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+        }
+    }
+}
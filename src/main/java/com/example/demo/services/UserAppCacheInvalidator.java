@@ -0,0 +1,51 @@
+package com.example.demo.services;
+
+import com.example.demo.models.UserApp;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener keeping the {@link UserAppCache} consistent with the database.
+ * Every insert, update (including role changes) and delete of a {@link UserApp} evicts its
+ * cache entry right away and once more after the transaction completes, so a concurrent
+ * reload cannot put the pre-commit state back into the cache.
+ */
+public class UserAppCacheInvalidator {
+
+    private final ObjectProvider<UserAppCache> userAppCache;
+
+    /**
+     * Creates the listener. Hibernate has it created by Spring while the entity manager factory starts,
+     * before the cache can exist, hence the provider; and through its constructor, as beans created that way
+     * get no field injection in AOT mode and in the native image.
+     * @param userAppCache provider of the cache to keep consistent
+     */
+    public UserAppCacheInvalidator(ObjectProvider<UserAppCache> userAppCache) {
+        this.userAppCache = userAppCache;
+    }
+
+    /**
+     * Evicts the cached entry of a user that has just been written.
+     * @param userApp the inserted, updated or deleted user
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(UserApp userApp) {
+        String username = userApp.getUsername();
+        UserAppCache cache = userAppCache.getObject();
+        cache.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(username);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Size-bounded cache of JWT tokens whose signature has already been verified.
+ * Entries are keyed by a SHA-256 digest of the raw token, hold the resolved principal
+ * and authorities, and are evicted no later than the token's expiration.
+ * Hit, miss and eviction counters are published as "cache.*" metrics with the name "jwt.verified-tokens".
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /** Name under which the cache statistics are exposed through Micrometer */
+    public static final String CACHE_NAME = "jwt.verified-tokens";
+
+    /**
+     * Never-updated digest cloned for every token: cheaper than a provider lookup, and unlike a
+     * ThreadLocal it does not allocate one digest per thread when requests run on virtual threads
+     */
+    private static final MessageDigest SHA_256_PROTOTYPE;
+
+    static {
+        try {
+            SHA_256_PROTOTYPE = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final boolean enabled;
+    private final Cache<ByteBuffer, VerifiedToken> cache;
+
+    /**
+     * Creates the cache from application properties and registers its statistics.
+     *
+     * @param enabled whether verified tokens are cached at all
+     * @param maximumSize maximum number of tokens kept in memory
+     * @param timeToLive upper bound on how long a verified token is trusted without re-verification
+     * @param meterRegistry registry receiving the hit/miss/eviction counters
+     */
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.max-size:10000}") long maximumSize,
+                              @Value("${jwt.cache.ttl:10m}") Duration timeToLive,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        long ttlNanos = timeToLive.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<ByteBuffer, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+                        long untilExpiration = Duration.ofMillis(value.expiresAt() - System.currentTimeMillis()).toNanos();
+                        return Math.max(0, Math.min(ttlNanos, untilExpiration));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Looks up a previously verified token.
+     *
+     * @param token the raw JWT token
+     * @return the cached verification result, or null if the token has not been verified recently
+     */
+    public VerifiedToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        VerifiedToken verifiedToken = cache.getIfPresent(digest(token));
+        if (verifiedToken != null && verifiedToken.expiresAt() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return verifiedToken;
+    }
+
+    /**
+     * Remembers a token whose signature and subject have just been verified.
+     *
+     * @param token the raw JWT token
+     * @param tokenId the token's id claim, may be null
+     * @param principal the principal resolved from the token
+     * @param authorities the authorities granted by the token
+     * @param expiration the token's expiration claim
+     */
+    public void put(String token, String tokenId, Object principal, Collection<? extends GrantedAuthority> authorities,
+                    Date expiration) {
+        if (!enabled || expiration == null) {
+            return;
+        }
+        cache.put(digest(token), new VerifiedToken(tokenId, principal, List.copyOf(authorities), expiration.getTime()));
+    }
+
+    /**
+     * Forgets a token, for example when it has been rejected or revoked.
+     *
+     * @param token the raw JWT token
+     */
+    public void invalidate(String token) {
+        if (enabled) {
+            cache.invalidate(digest(token));
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        try {
+            MessageDigest sha256 = (MessageDigest) SHA_256_PROTOTYPE.clone();
+            return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Result of a successful token verification.
+     *
+     * @param tokenId the token's id claim, checked against the revocations on every use; may be null
+     * @param principal the authenticated principal
+     * @param authorities the granted authorities
+     * @param expiresAt the token's expiration in epoch milliseconds
+     */
+    public record VerifiedToken(String tokenId, Object principal, List<GrantedAuthority> authorities, long expiresAt) {
+    }
+}
@@ -0,0 +1,135 @@
+let isLoggedIn = false;
+
+// Check authentication status
+async function checkAuthStatus() {
+	try {
+		const response = await fetch('/auth/status', {
+			method: 'GET',
+			credentials: 'include',
+		});
+
+		if (response.ok) {
+			isLoggedIn = true;
+			document.getElementById('authWarning').style.display = 'none';
+		} else {
+			isLoggedIn = false;
+			document.getElementById('authWarning').style.display = 'block';
+			document.getElementById('submitBtn').disabled = true;
+		}
+	} catch (error) {
+		isLoggedIn = false;
+		document.getElementById('authWarning').style.display = 'block';
+		document.getElementById('submitBtn').disabled = true;
+	}
+}
+
+document
+	.getElementById('addOfferForm')
+	.addEventListener('submit', async function (e) {
+		e.preventDefault();
+
+		if (!isLoggedIn) {
+			showError('You must be logged in to add job offers');
+			return;
+		}
+
+		const formData = new FormData(e.target);
+		const title = formData.get('title').trim();
+		const company = formData.get('company').trim();
+		const salary = formData.get('salary');
+		const description = formData.get('description').trim();
+
+		// Validation
+		if (!title || !company || !description) {
+			showError('Please fill in all required fields');
+			return;
+		}
+
+		if (title.length < 2) {
+			showError('Job title must be at least 2 characters long');
+			return;
+		}
+
+		if (company.length < 2) {
+			showError('Company name must be at least 2 characters long');
+			return;
+		}
+
+		if (description.length < 10) {
+			showError('Job description must be at least 10 characters long');
+			return;
+		}
+
+		const submitBtn = document.getElementById('submitBtn');
+		submitBtn.disabled = true;
+		submitBtn.textContent = 'Adding...';
+
+		try {
+			const offerData = {
+				title: title,
+				company: company,
+				description: description,
+			};
+
+			if (salary && salary > 0) {
+				offerData.salary = parseFloat(salary);
+			}
+
+			const response = await fetch('/offers', {
+				method: 'POST',
+				headers: {
+					'Content-Type': 'application/json',
+				},
+				body: JSON.stringify(offerData),
+				credentials: 'include',
+			});
+
+			if (response.ok) {
+				showSuccess('Job offer added successfully!');
+				document.getElementById('addOfferForm').reset();
+				setTimeout(() => {
+					window.location.href = '/offers';
+				}, 2000);
+			} else if (response.status === 403) {
+				showError(
+					'You are not authorized to add job offers. Please log in.'
+				);
+			} else {
+				const errorText = await response.text();
+				showError(errorText || 'Failed to add job offer');
+			}
+		} catch (error) {
+			console.error('Error:', error);
+			showError('Network error. Please try again.');
+		} finally {
+			submitBtn.disabled = false;
+			submitBtn.textContent = 'Add Job Offer';
+		}
+	});
+
+function showError(message) {
+	const errorDiv = document.getElementById('error');
+	const successDiv = document.getElementById('success');
+
+	successDiv.style.display = 'none';
+	errorDiv.textContent = message;
+	errorDiv.style.display = 'block';
+
+	setTimeout(() => {
+		errorDiv.style.display = 'none';
+	}, 5000);
+}
+
+function showSuccess(message) {
+	const errorDiv = document.getElementById('error');
+	const successDiv = document.getElementById('success');
+
+	errorDiv.style.display = 'none';
+	successDiv.textContent = message;
+	successDiv.style.display = 'block';
+}
+
+// Initialize page
+document.addEventListener('DOMContentLoaded', function () {
+	checkAuthStatus();
+});
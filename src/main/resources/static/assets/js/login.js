@@ -0,0 +1,29 @@
+document
+	.getElementById('loginForm')
+	.addEventListener('submit', async function (e) {
+		e.preventDefault();
+
+		const username = document.getElementById('username').value;
+		const password = document.getElementById('password').value;
+		const errorDiv = document.getElementById('error');
+
+		try {
+			const response = await fetch('/auth/login', {
+				method: 'POST',
+				headers: {
+					'Content-Type': 'application/json',
+				},
+				body: JSON.stringify({ username, password }),
+			});
+
+			if (response.ok) {
+				window.location.href = '/offers';
+			} else {
+				errorDiv.textContent = 'Invalid username or password';
+				errorDiv.style.display = 'block';
+			}
+		} catch (error) {
+			errorDiv.textContent = 'Login failed. Please try again.';
+			errorDiv.style.display = 'block';
+		}
+	});
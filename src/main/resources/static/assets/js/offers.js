@@ -0,0 +1,222 @@
+let currentUser = null;
+let isLoggedIn = false;
+
+// Check if user is logged in by trying to access a protected endpoint
+async function checkAuthStatus() {
+	try {
+		const response = await fetch('/auth/status', {
+			method: 'GET',
+			credentials: 'include',
+		});
+
+		if (response.ok) {
+			const userData = await response.json();
+			currentUser = userData;
+			isLoggedIn = true;
+			updateUI();
+		} else {
+			isLoggedIn = false;
+			updateUI();
+		}
+	} catch (error) {
+		isLoggedIn = false;
+		updateUI();
+	}
+}
+
+function updateUI() {
+	const guestButtons = document.getElementById('guestButtons');
+	const userButtons = document.getElementById('userButtons');
+	const userInfo = document.getElementById('userInfo');
+	const usernameSpan = document.getElementById('username');
+	const userRoleSpan = document.getElementById('userRole');
+
+	if (isLoggedIn && currentUser) {
+		guestButtons.style.display = 'none';
+		userButtons.style.display = 'flex';
+		userInfo.classList.add('show');
+		usernameSpan.textContent = currentUser.username;
+		userRoleSpan.textContent = currentUser.role;
+		userRoleSpan.className = `user-role role-${currentUser.role.toLowerCase()}`;
+	} else {
+		guestButtons.style.display = 'flex';
+		userButtons.style.display = 'none';
+		userInfo.classList.remove('show');
+	}
+}
+
+const PAGE_SIZE = 50;
+let nextCursor = null;
+
+// Loads the first page of offers, replacing whatever is displayed
+async function loadOffers() {
+	nextCursor = null;
+	document.getElementById('offersGrid').innerHTML = '';
+	document.getElementById('emptyState').style.display = 'none';
+	await loadNextPage();
+}
+
+// Fetches the page following nextCursor and appends its offers to the grid
+async function loadNextPage() {
+	const loadMoreBtn = document.getElementById('loadMoreBtn');
+	try {
+		const params = new URLSearchParams({ limit: PAGE_SIZE });
+		if (nextCursor !== null) {
+			params.set('cursor', nextCursor);
+		}
+		const response = await fetch(`/offers?${params}`);
+		const page = await response.json();
+
+		document.getElementById('loading').style.display = 'none';
+
+		const offersGrid = document.getElementById('offersGrid');
+		if (page.items.length === 0 && offersGrid.children.length === 0) {
+			document.getElementById('emptyState').style.display = 'block';
+		}
+
+		// Skips the offers the stream already added while the page was loading
+		page.items
+			.filter((offer) => !findOfferCard(offer.id))
+			.forEach((offer) => {
+				const offerCard = createOfferCard(offer);
+				offersGrid.appendChild(offerCard);
+			});
+
+		nextCursor = page.nextCursor;
+		loadMoreBtn.style.display = nextCursor !== null ? 'block' : 'none';
+	} catch (error) {
+		document.getElementById('loading').style.display = 'none';
+		showError('Failed to load job offers');
+	}
+}
+
+function createOfferCard(offer) {
+	const card = document.createElement('div');
+	card.className = 'offer-card';
+	card.dataset.offerId = offer.id;
+
+	const canModify =
+		isLoggedIn &&
+		currentUser &&
+		(currentUser.role === 'ADMIN' || currentUser.id === offer.owner?.id);
+
+	card.innerHTML = `
+                <div class="offer-title">${offer.title}</div>
+                <div class="offer-company">${offer.company}</div>
+                <div class="offer-salary">$${
+						offer.salary?.toLocaleString() || 'N/A'
+					}</div>
+                <div class="offer-description">${offer.description}</div>
+                <div class="offer-owner">Posted by: ${
+						offer.owner?.username || 'Unknown'
+					}</div>
+                ${
+						canModify
+							? `
+                    <div class="offer-actions">
+                        <button onclick="deleteOffer(${offer.id})" class="btn btn-danger btn-small">Delete</button>
+                    </div>
+                `
+							: ''
+					}
+            `;
+
+	return card;
+}
+
+async function deleteOffer(offerId) {
+	if (!confirm('Are you sure you want to delete this job offer?')) {
+		return;
+	}
+
+	try {
+		const response = await fetch(`/offers/${offerId}`, {
+			method: 'DELETE',
+			credentials: 'include',
+		});
+
+		if (response.ok) {
+			removeOfferCard(offerId);
+		} else {
+			const message = await response.text();
+			showError(message || 'Failed to delete offer');
+		}
+	} catch (error) {
+		showError('Failed to delete offer');
+	}
+}
+
+// Applies the offers created and deleted by anyone as they happen, instead of reloading the list.
+// The browser reconnects by itself and the server replays what it missed (Last-Event-ID),
+// or sends a reset when it cannot.
+function openOfferStream() {
+	const stream = new EventSource('/offers/stream');
+	stream.addEventListener('created', (event) => addOfferCard(JSON.parse(event.data)));
+	stream.addEventListener('deleted', (event) => removeOfferCard(JSON.parse(event.data).id));
+	stream.addEventListener('reset', () => loadOffers());
+}
+
+function findOfferCard(offerId) {
+	return document.querySelector(`.offer-card[data-offer-id="${offerId}"]`);
+}
+
+function addOfferCard(offer) {
+	// Offers are listed by id, so a new one belongs to the last page: it shows up once that page is loaded
+	if (nextCursor !== null || findOfferCard(offer.id)) {
+		return;
+	}
+	document.getElementById('emptyState').style.display = 'none';
+	document.getElementById('offersGrid').appendChild(createOfferCard(offer));
+}
+
+function removeOfferCard(offerId) {
+	const card = findOfferCard(offerId);
+	if (card) {
+		card.remove();
+	}
+	if (
+		document.getElementById('offersGrid').children.length === 0 &&
+		nextCursor === null
+	) {
+		document.getElementById('emptyState').style.display = 'block';
+	}
+}
+
+function showError(message) {
+	const errorDiv = document.getElementById('error');
+	errorDiv.textContent = message;
+	errorDiv.style.display = 'block';
+	setTimeout(() => {
+		errorDiv.style.display = 'none';
+	}, 5000);
+}
+
+// Logout function
+document
+	.getElementById('logoutBtn')
+	.addEventListener('click', async function () {
+		try {
+			await fetch('/auth/logout', {
+				method: 'POST',
+				credentials: 'include',
+			});
+			currentUser = null;
+			isLoggedIn = false;
+			updateUI();
+			loadOffers(); // Reload to hide action buttons
+		} catch (error) {
+			console.error('Logout failed:', error);
+		}
+	});
+
+document
+	.getElementById('loadMoreBtn')
+	.addEventListener('click', loadNextPage);
+
+// Initialize page
+document.addEventListener('DOMContentLoaded', function () {
+	checkAuthStatus().then(() => {
+		openOfferStream();
+		loadOffers();
+	});
+});
@@ -0,0 +1,42 @@
+document
+	.getElementById('registerForm')
+	.addEventListener('submit', async function (e) {
+		e.preventDefault();
+
+		const username = document.getElementById('username').value;
+		const password = document.getElementById('password').value;
+		const role = document.getElementById('role').value;
+		const errorDiv = document.getElementById('error');
+		const successDiv = document.getElementById('success');
+
+		// Hide previous messages
+		errorDiv.style.display = 'none';
+		successDiv.style.display = 'none';
+
+		try {
+			const response = await fetch('/auth/register', {
+				method: 'POST',
+				headers: {
+					'Content-Type': 'application/json',
+				},
+				body: JSON.stringify({ username, password, role }),
+			});
+
+			if (response.ok) {
+				successDiv.textContent =
+					'Registration successful! You can now login.';
+				successDiv.style.display = 'block';
+				document.getElementById('registerForm').reset();
+				setTimeout(() => {
+					window.location.href = '/login';
+				}, 2000);
+			} else {
+				errorDiv.textContent =
+					'Registration failed. Username may already exist.';
+				errorDiv.style.display = 'block';
+			}
+		} catch (error) {
+			errorDiv.textContent = 'Registration failed. Please try again.';
+			errorDiv.style.display = 'block';
+		}
+	});
@@ -0,0 +1,36 @@
+package com.example.demo;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssetCompressionTests {
+
+	@Test
+	void everyAssetHasAnUpToDateGzippedCopy() throws Exception {
+		PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+		Resource[] assets = resolver.getResources(WebConfig.ASSETS_LOCATION + "**/*.*");
+		assertThat(assets).isNotEmpty();
+
+		for (Resource asset : assets) {
+			String name = asset.getFilename();
+			if (name.endsWith(".gz")) {
+				continue;
+			}
+			Resource gzipped = asset.createRelative(name + ".gz");
+			assertThat(gzipped.exists())
+					.as("%s.gz is missing, create it with gzip -9 -n -k %s", name, name)
+					.isTrue();
+			try (InputStream in = asset.getInputStream(); InputStream gzipIn = new GZIPInputStream(gzipped.getInputStream())) {
+				assertThat(gzipIn.readAllBytes())
+						.as("%s.gz is outdated, recreate it with gzip -9 -n -k -f %s", name, name)
+						.isEqualTo(in.readAllBytes());
+			}
+		}
+	}
+}
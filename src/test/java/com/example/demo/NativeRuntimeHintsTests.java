@@ -0,0 +1,43 @@
+package com.example.demo;
+
+import com.example.demo.dto.OfferPage;
+import com.example.demo.dto.OfferSummary;
+import com.example.demo.models.JobOffer;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeRuntimeHintsTests {
+
+	@Test
+	void registersWhatTheNativeImageCannotDiscover() throws Exception {
+		RuntimeHints hints = new RuntimeHints();
+		new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+		for (String implementation : new String[]{"io.jsonwebtoken.impl.DefaultJwtBuilder",
+				"io.jsonwebtoken.impl.DefaultJwtParserBuilder", "io.jsonwebtoken.jackson.io.JacksonDeserializer"}) {
+			assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(implementation))).accepts(hints);
+		}
+		// Classes registered by name must exist in the versions on the classpath
+		hints.reflection().typeHints()
+				.map(hint -> hint.getType().getName())
+				.filter(name -> name.startsWith("io.jsonwebtoken") || name.startsWith("org.hibernate"))
+				.forEach(name -> assertThat(name).satisfies(Class::forName));
+		assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer")).accepts(hints);
+
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(JobOffer.class.getMethod("getOwner"))).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(JobOffer.class.getMethod("setTitle", String.class))).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(OfferPage.class.getMethod("items"))).accepts(hints);
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(OfferSummary.OwnerSummary.class.getMethod("username"))).accepts(hints);
+
+		assertThat(RuntimeHintsPredicates.resource().forResource("templates/offers.html")).accepts(hints);
+		assertThat(RuntimeHintsPredicates.resource().forResource("org/thymeleaf/thymeleaf.properties")).accepts(hints);
+
+		assertThat(RuntimeHintsPredicates.reflection().onType(CaffeineCachingProvider.class)).accepts(hints);
+		assertThat(RuntimeHintsPredicates.resource().forResource("reference.conf")).accepts(hints);
+	}
+}
@@ -0,0 +1,335 @@
+package com.example.demo;
+
+import com.example.demo.models.Role;
+import com.example.demo.repositories.UserAppRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end latency gate: boots the application on a random port with an in-memory H2 database, seeds users
+ * (the first ones promoted to ADMIN) and offers, then replays a weighted mix of requests from concurrent clients
+ * in a closed loop. Latencies are recorded per operation in HdrHistograms, whose percentile distributions are
+ * written to target/load, and the test fails when a p50 or p99 exceeds its SLO or when requests fail.
+ * Client think time is zero and latencies are those of the requests sent (no coordinated-omission correction).
+ * Run with: mvn -Pload test -Dtest=RequestMixLoadTests [-Dload.users=20 -Dload.offers=1000 -Dload.concurrency=16
+ * -Dload.duration=10s -Dload.mix=login=2,list=58,create=15,delete=15,admin=10 -Dload.slo.list.p99=250ms
+ * -Dload.args=--spring.profiles.active=reactive]
+ */
+@Tag("load")
+class RequestMixLoadTests {
+
+	private static final int USERS = Integer.getInteger("load.users", 20);
+	private static final int ADMINS = Math.min(USERS, Integer.getInteger("load.admins", 2));
+	private static final int OFFERS = Integer.getInteger("load.offers", 1000);
+	private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 16);
+	private static final Duration DURATION = DurationStyle.detectAndParse(System.getProperty("load.duration", "10s"));
+	private static final Duration WARM_UP = Duration.ofSeconds(3);
+	private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.slo.error-rate", "0"));
+	private static final String PASSWORD = "load-password";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	/**
+	 * Operations of the mix, with their default weight and SLOs (-Dload.slo.&lt;name&gt;.p50 / .p99).
+	 * The defaults leave room for slow CI machines; login includes a BCrypt verification (about 100ms).
+	 */
+	private enum Operation {
+		LOGIN("login", 2, "400ms", "2s"),
+		LIST("list", 58, "50ms", "400ms"),
+		CREATE("create", 15, "50ms", "400ms"),
+		DELETE("delete", 15, "50ms", "400ms"),
+		ADMIN("admin", 10, "30ms", "300ms");
+
+		private final String key;
+		private final int defaultWeight;
+		private final Duration p50;
+		private final Duration p99;
+
+		Operation(String key, int defaultWeight, String p50, String p99) {
+			this.key = key;
+			this.defaultWeight = defaultWeight;
+			this.p50 = DurationStyle.detectAndParse(System.getProperty("load.slo." + key + ".p50", p50));
+			this.p99 = DurationStyle.detectAndParse(System.getProperty("load.slo." + key + ".p99", p99));
+		}
+	}
+
+	/**
+	 * A seeded user: its credentials, its authentication cookies, and the ids of the offers it owns
+	 * and may delete (taken by the delete operations, added by the create operations).
+	 */
+	private record VirtualUser(String credentials, String cookie, Deque<Long> offerIds) {
+	}
+
+	@Test
+	void requestMixMeetsItsSlos() throws Exception {
+		Map<Operation, Integer> mix = parseMix(System.getProperty("load.mix"));
+		List<String> args = new ArrayList<>(List.of("--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:load-mix",
+				"--security.rate-limit.enabled=false"));
+		String extraArgs = System.getProperty("load.args", "").trim();
+		if (!extraArgs.isEmpty()) {
+			args.addAll(Arrays.asList(extraArgs.split("\\s+")));
+		}
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+				.run(args.toArray(String[]::new))) {
+			String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+			List<VirtualUser> users = seed(client, baseUrl, context.getBean(UserAppRepository.class));
+
+			replay(client, baseUrl, users, mix, WARM_UP, recorders(), new LongAdder());
+			Map<Operation, Recorder> recorders = recorders();
+			LongAdder errors = new LongAdder();
+			replay(client, baseUrl, users, mix, DURATION, recorders, errors);
+			report(mix, recorders, errors);
+		}
+	}
+
+	/**
+	 * Parses "login=2,list=58,..." into the weight of each operation; absent operations get their default weight.
+	 */
+	private static Map<Operation, Integer> parseMix(String mix) {
+		Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+		for (Operation operation : Operation.values()) {
+			weights.put(operation, operation.defaultWeight);
+		}
+		if (mix != null && !mix.isBlank()) {
+			for (String entry : mix.split(",")) {
+				String[] parts = entry.trim().split("=", 2);
+				Operation operation = Arrays.stream(Operation.values())
+						.filter(candidate -> candidate.key.equals(parts[0]))
+						.findFirst()
+						.orElseThrow(() -> new IllegalArgumentException("Unknown operation in load.mix: " + parts[0]));
+				weights.put(operation, Integer.parseInt(parts[1]));
+			}
+		}
+		assertThat(weights.values().stream().mapToInt(Integer::intValue).sum()).as("load.mix total weight").isPositive();
+		return weights;
+	}
+
+	private static Map<Operation, Recorder> recorders() {
+		Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+		for (Operation operation : Operation.values()) {
+			recorders.put(operation, new Recorder(3));
+		}
+		return recorders;
+	}
+
+	/**
+	 * Registers the users, promotes the first ADMINS of them, logs them all in and creates their share of the offers.
+	 */
+	private List<VirtualUser> seed(HttpClient client, String baseUrl, UserAppRepository userAppRepository) throws Exception {
+		List<String> credentials = IntStream.range(0, USERS)
+				.mapToObj(i -> "{\"username\":\"load-user-" + i + "\",\"password\":\"" + PASSWORD + "\"}")
+				.toList();
+		for (String user : credentials) {
+			send(client, post(baseUrl + "/auth/register", null, user));
+		}
+		for (int i = 0; i < ADMINS; i++) {
+			userAppRepository.findByUsername("load-user-" + i).ifPresent(admin -> {
+				admin.setRole(Role.ADMIN);
+				userAppRepository.save(admin);
+			});
+		}
+
+		List<VirtualUser> users = new ArrayList<>(USERS);
+		for (int i = 0; i < USERS; i++) {
+			String cookie = cookies(send(client, post(baseUrl + "/auth/login", null, credentials.get(i))));
+			Deque<Long> offerIds = new ConcurrentLinkedDeque<>();
+			int count = OFFERS / USERS + (i < OFFERS % USERS ? 1 : 0);
+			for (int from = 0; from < count; from += 1000) {
+				String offers = IntStream.range(from, Math.min(count, from + 1000))
+						.mapToObj(RequestMixLoadTests::offer)
+						.collect(Collectors.joining(",", "[", "]"));
+				for (JsonNode created : objectMapper.readTree(send(client, post(baseUrl + "/offers/batch", cookie, offers)).body())) {
+					offerIds.add(created.get("id").asLong());
+				}
+			}
+			users.add(new VirtualUser(credentials.get(i), cookie, offerIds));
+		}
+		return users;
+	}
+
+	private static String offer(int i) {
+		return "{\"title\":\"Offer " + i + "\",\"description\":\"Load test offer\",\"company\":\"Company "
+				+ (i % 20) + "\",\"salary\":" + (30000 + i * 100) + "}";
+	}
+
+	private static HttpRequest post(String url, String cookie, String json) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json));
+		if (cookie != null) {
+			builder.header("Cookie", cookie);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns the cookies set by a response (access and refresh tokens) as a Cookie header.
+	 */
+	private static String cookies(HttpResponse<?> response) {
+		return response.headers().allValues("Set-Cookie").stream()
+				.map(cookie -> cookie.split(";", 2)[0])
+				.collect(Collectors.joining("; "));
+	}
+
+	private static HttpResponse<String> send(HttpClient client, HttpRequest request) throws Exception {
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		assertThat(response.statusCode()).as(request.uri().toString()).isEqualTo(200);
+		return response;
+	}
+
+	/**
+	 * Replays the mix from CONCURRENCY clients for the given duration, client i acting as user i modulo USERS.
+	 */
+	private void replay(HttpClient client, String baseUrl, List<VirtualUser> users, Map<Operation, Integer> mix,
+						Duration duration, Map<Operation, Recorder> recorders, LongAdder errors) throws Exception {
+		Operation[] operations = Operation.values();
+		int[] cumulativeWeights = new int[operations.length];
+		int totalWeight = 0;
+		for (int i = 0; i < operations.length; i++) {
+			totalWeight += mix.get(operations[i]);
+			cumulativeWeights[i] = totalWeight;
+		}
+		int weights = totalWeight;
+
+		long deadline = System.nanoTime() + duration.toNanos();
+		ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+		try {
+			List<Future<?>> futures = new ArrayList<>(CONCURRENCY);
+			for (int i = 0; i < CONCURRENCY; i++) {
+				VirtualUser user = users.get(i % USERS);
+				VirtualUser admin = users.get(i % ADMINS);
+				futures.add(executor.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						int draw = ThreadLocalRandom.current().nextInt(weights);
+						int index = 0;
+						while (cumulativeWeights[index] <= draw) {
+							index++;
+						}
+						Operation operation = operations[index];
+						Long offerId = operation == Operation.DELETE ? user.offerIds().poll() : null;
+						if (operation == Operation.DELETE && offerId == null) {
+							operation = Operation.CREATE;
+						}
+						HttpRequest request = request(operation, baseUrl, operation == Operation.ADMIN ? admin : user, offerId);
+
+						long start = System.nanoTime();
+						try {
+							HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+							recorders.get(operation).recordValue(System.nanoTime() - start);
+							if (response.statusCode() != 200) {
+								errors.increment();
+							} else if (operation == Operation.CREATE) {
+								user.offerIds().add(objectMapper.readTree(response.body()).get("id").asLong());
+							}
+						} catch (Exception e) {
+							recorders.get(operation).recordValue(System.nanoTime() - start);
+							errors.increment();
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(duration.toSeconds() + 60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static HttpRequest request(Operation operation, String baseUrl, VirtualUser user, Long offerId) {
+		return switch (operation) {
+			case LOGIN -> post(baseUrl + "/auth/login", null, user.credentials());
+			case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "/offers"))
+					.header("Accept", "application/json")
+					.header("Cookie", user.cookie())
+					.build();
+			case CREATE -> post(baseUrl + "/offers", user.cookie(), offer(ThreadLocalRandom.current().nextInt(1000)));
+			case DELETE -> HttpRequest.newBuilder(URI.create(baseUrl + "/offers/" + offerId))
+					.header("Cookie", user.cookie())
+					.DELETE()
+					.build();
+			case ADMIN -> HttpRequest.newBuilder(URI.create(baseUrl + "/hello/private-admin"))
+					.header("Cookie", user.cookie())
+					.build();
+		};
+	}
+
+	/**
+	 * Prints the latencies of each operation against its SLOs, writes their percentile distributions
+	 * to target/load/&lt;operation&gt;.hgrm, and fails on any violation.
+	 */
+	private static void report(Map<Operation, Integer> mix, Map<Operation, Recorder> recorders, LongAdder errors)
+			throws Exception {
+		Path directory = Files.createDirectories(Path.of("target", "load"));
+		List<String> violations = new ArrayList<>();
+		long total = 0;
+		System.out.printf("%nUsers %d, offers %d, concurrency %d, %s%n%-8s %6s %10s %9s %9s %9s %9s %9s %15s%n",
+				USERS, OFFERS, CONCURRENCY, DURATION, "op", "weight", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms",
+				"max ms", "SLO p50/p99 ms");
+		for (Operation operation : Operation.values()) {
+			Histogram histogram = recorders.get(operation).getIntervalHistogram();
+			total += histogram.getTotalCount();
+			try (PrintStream out = new PrintStream(directory.resolve(operation.key + ".hgrm").toFile())) {
+				histogram.outputPercentileDistribution(out, 1e6);
+			}
+			System.out.printf("%-8s %6d %10d %9.0f %9.2f %9.2f %9.2f %9.2f %7d/%-7d%n", operation.key,
+					mix.get(operation), histogram.getTotalCount(), histogram.getTotalCount() / (DURATION.toNanos() / 1e9),
+					histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(90) / 1e6,
+					histogram.getValueAtPercentile(99) / 1e6, histogram.getMaxValue() / 1e6,
+					operation.p50.toMillis(), operation.p99.toMillis());
+			if (histogram.getTotalCount() == 0) {
+				continue;
+			}
+			if (histogram.getValueAtPercentile(50) > operation.p50.toNanos()) {
+				violations.add(String.format("%s p50 %.2fms > %dms", operation.key,
+						histogram.getValueAtPercentile(50) / 1e6, operation.p50.toMillis()));
+			}
+			if (histogram.getValueAtPercentile(99) > operation.p99.toNanos()) {
+				violations.add(String.format("%s p99 %.2fms > %dms", operation.key,
+						histogram.getValueAtPercentile(99) / 1e6, operation.p99.toMillis()));
+			}
+		}
+		System.out.printf("errors %d of %d requests%n", errors.sum(), total);
+		if (errors.sum() > total * MAX_ERROR_RATE) {
+			violations.add(String.format("error rate %.4f > %s", (double) errors.sum() / Math.max(1, total), MAX_ERROR_RATE));
+		}
+		assertThat(violations).as("SLO violations").isEmpty();
+	}
+}
@@ -0,0 +1,155 @@
+package com.example.demo;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares thread-per-request, virtual-thread and reactive (WebFlux event loop) request handling
+ * at high concurrency on GET /offers and GET /hello/private. The virtual-thread run needs Java 21 and is skipped otherwise.
+ * Run with: mvn -Pload test -Dtest=ThreadModelLoadTests [-Dload.concurrency=500 -Dload.duration=10s]
+ */
+@Tag("load")
+class ThreadModelLoadTests {
+
+	private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 500);
+	private static final Duration DURATION = DurationStyle.detectAndParse(System.getProperty("load.duration", "10s"));
+	private static final Duration WARM_UP = Duration.ofSeconds(3);
+	private static final int OFFERS = 200;
+
+	@Test
+	void compareThreadModels() throws Exception {
+		List<String> report = new ArrayList<>();
+		report.addAll(run("platform"));
+		if (Runtime.version().feature() >= 21) {
+			report.addAll(run("virtual", "--spring.threads.virtual.enabled=true"));
+		} else {
+			report.add("virtual threads skipped: Java " + Runtime.version().feature() + " < 21");
+		}
+		report.addAll(run("reactive", "--spring.profiles.active=reactive"));
+		System.out.printf("%nConcurrency %d, %s per endpoint%n%-10s %-16s %10s %10s %10s %10s %10s%n",
+				CONCURRENCY, DURATION, "threads", "endpoint", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+		report.forEach(System.out::println);
+	}
+
+	/**
+	 * Starts the application with the given command line arguments, which override application.properties.
+	 */
+	private List<String> run(String mode, String... arguments) throws Exception {
+		List<String> args = new ArrayList<>(List.of("--server.port=0",
+				"--spring.datasource.url=jdbc:h2:mem:load-" + mode,
+				"--security.rate-limit.enabled=false"));
+		args.addAll(List.of(arguments));
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+				.run(args.toArray(String[]::new))) {
+			String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+			HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+			String cookie = seed(client, baseUrl);
+
+			HttpRequest offers = HttpRequest.newBuilder(URI.create(baseUrl + "/offers"))
+					.header("Accept", "application/json").build();
+			HttpRequest hello = HttpRequest.newBuilder(URI.create(baseUrl + "/hello/private"))
+					.header("Cookie", cookie).build();
+			return List.of(measure(client, mode, "/offers", offers), measure(client, mode, "/hello/private", hello));
+		}
+	}
+
+	/**
+	 * Registers and logs in a user, creates the offers, and returns the authentication cookie.
+	 */
+	private static String seed(HttpClient client, String baseUrl) throws Exception {
+		String credentials = "{\"username\":\"load-user\",\"password\":\"load-password\"}";
+		send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/auth/register"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(credentials)).build());
+		HttpResponse<Void> login = send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(credentials)).build());
+		String cookie = login.headers().firstValue("Set-Cookie").orElseThrow().split(";", 2)[0];
+
+		String offers = IntStream.range(0, OFFERS)
+				.mapToObj(i -> "{\"title\":\"Offer " + i + "\",\"description\":\"Load test offer\",\"company\":\"Company "
+						+ (i % 20) + "\",\"salary\":" + (30000 + i * 100) + "}")
+				.collect(Collectors.joining(",", "[", "]"));
+		send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/offers/batch"))
+				.header("Content-Type", "application/json")
+				.header("Cookie", cookie)
+				.POST(HttpRequest.BodyPublishers.ofString(offers)).build());
+		return cookie;
+	}
+
+	private static HttpResponse<Void> send(HttpClient client, HttpRequest request) throws Exception {
+		HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+		assertThat(response.statusCode()).as(request.uri().toString()).isEqualTo(200);
+		return response;
+	}
+
+	/**
+	 * Sends the request from CONCURRENCY clients in a closed loop, first for the warm-up then for the measured duration.
+	 */
+	private static String measure(HttpClient client, String mode, String endpoint, HttpRequest request) throws Exception {
+		hammer(client, request, WARM_UP, new Recorder(3), new LongAdder());
+		Recorder recorder = new Recorder(3);
+		LongAdder errors = new LongAdder();
+		hammer(client, request, DURATION, recorder, errors);
+		Histogram histogram = recorder.getIntervalHistogram();
+
+		assertThat(errors.sum()).as("%s errors on %s", mode, endpoint).isZero();
+		return String.format("%-10s %-16s %10.0f %10.2f %10.2f %10.2f %10d", mode, endpoint,
+				histogram.getTotalCount() / (DURATION.toNanos() / 1e9),
+				histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6,
+				histogram.getMaxValue() / 1e6, errors.sum());
+	}
+
+	private static void hammer(HttpClient client, HttpRequest request, Duration duration, Recorder recorder, LongAdder errors)
+			throws Exception {
+		long deadline = System.nanoTime() + duration.toNanos();
+		ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+		try {
+			List<Future<?>> futures = new ArrayList<>(CONCURRENCY);
+			for (int i = 0; i < CONCURRENCY; i++) {
+				futures.add(executor.submit(() -> {
+					while (System.nanoTime() < deadline) {
+						long start = System.nanoTime();
+						try {
+							if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+								errors.increment();
+							}
+						} catch (Exception e) {
+							errors.increment();
+						}
+						recorder.recordValue(System.nanoTime() - start);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get(duration.toSeconds() + 60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dto.OfferSummary;
+import com.example.demo.models.JobOffer;
+import com.example.demo.models.Role;
+import com.example.demo.models.UserApp;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:second-level-cache-tests",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"
+})
+class SecondLevelCacheTests {
+
+	@Autowired
+	private UserAppRepository userAppRepository;
+
+	@Autowired
+	private JobOfferRepository jobOfferRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void clearCaches() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManagerFactory.getCache().evictAll();
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+	}
+
+	@Test
+	void cachedReadsIssueNoStatement() {
+		UserApp owner = userAppRepository.save(new UserApp(uniqueName(), "password"));
+		JobOffer offer = jobOfferRepository.save(new JobOffer("Developer", "Java", "ACME", 50_000.0, owner));
+		long cursor = offer.getId() - 1;
+		entityManagerFactory.getCache().evictAll();
+
+		assertThat(statements(() -> jobOfferRepository.findById(offer.getId()))).isPositive();
+		assertThat(statements(() -> userAppRepository.findByUsername(owner.getUsername()))).isPositive();
+		assertThat(statements(() -> jobOfferRepository.findPageAfter(cursor, 10))).isPositive();
+
+		assertThat(statements(() -> jobOfferRepository.findById(offer.getId()))).isZero();
+		assertThat(statements(() -> userAppRepository.findById(owner.getId()))).isZero();
+		assertThat(statements(() -> userAppRepository.findByUsername(owner.getUsername()))).isZero();
+		assertThat(statements(() -> jobOfferRepository.findPageAfter(cursor, 10))).isZero();
+
+		assertThat(jobOfferRepository.findById(offer.getId()).orElseThrow().getOwner().getUsername())
+				.isEqualTo(owner.getUsername());
+		assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+		assertThat(statistics.getQueryCacheHitCount()).isPositive();
+	}
+
+	@Test
+	void writesThroughTheRepositoriesInvalidateTheCaches() {
+		UserApp owner = userAppRepository.save(new UserApp(uniqueName(), "password"));
+		JobOffer offer = jobOfferRepository.save(new JobOffer("Developer", "Java", "ACME", 50_000.0, owner));
+		long cursor = offer.getId() - 1;
+		userAppRepository.findByUsername(owner.getUsername());
+		jobOfferRepository.findById(offer.getId());
+		jobOfferRepository.findPageAfter(cursor, 10);
+
+		owner.setRole(Role.ADMIN);
+		userAppRepository.save(owner);
+		assertThat(userAppRepository.findByUsername(owner.getUsername()).orElseThrow().getRole()).isEqualTo(Role.ADMIN);
+		assertThat(jobOfferRepository.findById(offer.getId()).orElseThrow().getOwner().getRole()).isEqualTo(Role.ADMIN);
+
+		offer.setTitle("Senior developer");
+		jobOfferRepository.save(offer);
+		assertThat(jobOfferRepository.findById(offer.getId()).orElseThrow().getTitle()).isEqualTo("Senior developer");
+		assertThat(titles(jobOfferRepository.findPageAfter(cursor, 10).items())).containsExactly("Senior developer");
+
+		JobOffer added = jobOfferRepository.save(new JobOffer("Tester", "QA", "ACME", 40_000.0, owner));
+		assertThat(titles(jobOfferRepository.findPageAfter(cursor, 10).items())).containsExactly("Senior developer", "Tester");
+
+		jobOfferRepository.delete(offer);
+		assertThat(jobOfferRepository.findById(offer.getId())).isEmpty();
+		jobOfferRepository.deleteAllByIdInBatch(List.of(added.getId()));
+		assertThat(jobOfferRepository.findById(added.getId())).isEmpty();
+		assertThat(jobOfferRepository.findPageAfter(cursor, 10).items()).isEmpty();
+
+		userAppRepository.delete(owner);
+		assertThat(userAppRepository.findByUsername(owner.getUsername())).isEmpty();
+	}
+
+	@Test
+	void rebuildScansBypassTheQueryCache() {
+		UserApp owner = userAppRepository.save(new UserApp(uniqueName(), "password"));
+		JobOffer offer = jobOfferRepository.save(new JobOffer("Developer", "Java", "ACME", 50_000.0, owner));
+		long cursor = offer.getId() - 1;
+
+		assertThat(statements(() -> jobOfferRepository.scanSummariesAfter(cursor, Limit.of(10)))).isPositive();
+		assertThat(statistics.getQueryCachePutCount()).isZero();
+		assertThat(statements(() -> jobOfferRepository.scanSummariesAfter(cursor, Limit.of(10)))).isPositive();
+		assertThat(statistics.getQueryCacheHitCount()).isZero();
+		assertThat(titles(jobOfferRepository.scanSummariesAfter(cursor, Limit.of(10)))).containsExactly("Developer");
+	}
+
+	private long statements(Supplier<?> read) {
+		statistics.clear();
+		read.get();
+		return statistics.getPrepareStatementCount();
+	}
+
+	private static List<String> titles(List<OfferSummary> offers) {
+		return offers.stream().map(OfferSummary::title).toList();
+	}
+
+	private static String uniqueName() {
+		return "cache-" + UUID.randomUUID();
+	}
+}
@@ -0,0 +1,38 @@
+package com.example.demo.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthRateLimiterTests {
+
+	@Test
+	void repeatedUsernameFieldsAreRefusedInsteadOfCountedAgainstTheFirstOne() {
+		AuthRateLimiter limiter = new AuthRateLimiter(true, 100, Duration.ofMinutes(1), 1, Duration.ofHours(1),
+				1000, Duration.ofMinutes(10), 4096, new SimpleMeterRegistry());
+
+		assertThat(limiter.acquireForBody(json("{\"username\":\"victim\",\"password\":\"guess-1\"}"))).isZero();
+		assertThat(limiter.acquireForBody(json("{\"username\":\"victim\",\"password\":\"guess-2\"}"))).isPositive();
+		// Usernames are looked up case-sensitively: another case is another account, with its own bucket
+		assertThat(limiter.acquireForBody(json("{\"username\":\"Victim\",\"password\":\"guess-1\"}"))).isZero();
+
+		// Jackson binds the last field: counting the first one would let every guess use a fresh bucket
+		assertThat(limiter.acquireForBody(json("{\"username\":\"rnd-123\",\"username\":\"victim\",\"password\":\"guess-3\"}")))
+				.isEqualTo(AuthRateLimiter.AMBIGUOUS_USERNAME);
+		assertThat(limiter.acquireForBody(json("{\"username\":\"rnd-456\",\"password\":\"x\",\"username\":{\"n\":1}}")))
+				.isEqualTo(AuthRateLimiter.AMBIGUOUS_USERNAME);
+
+		// Nested fields are not the bound username and the last field is found after other ones
+		assertThat(AuthRateLimiter.extractUsername(json("{\"profile\":{\"username\":\"x\"},\"username\":\"alice\"}")))
+				.isEqualTo("alice");
+		assertThat(AuthRateLimiter.extractUsername(json("{\"username\":\"alice\""))).isNull();
+	}
+
+	private static byte[] json(String body) {
+		return body.getBytes(StandardCharsets.UTF_8);
+	}
+}
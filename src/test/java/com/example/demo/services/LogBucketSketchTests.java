@@ -0,0 +1,73 @@
+package com.example.demo.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+class LogBucketSketchTests {
+
+	@Test
+	void quantilesAreWithinTheRelativeAccuracy() {
+		LogBucketSketch sketch = new LogBucketSketch(0.01);
+		Random random = new Random(42);
+		double[] values = new double[10_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = Math.exp(10 + 2 * random.nextGaussian());
+			sketch.add(values[i]);
+		}
+		Arrays.sort(values);
+
+		for (double quantile : new double[]{0, 0.5, 0.9, 0.99, 0.999, 1}) {
+			double exact = values[(int) (quantile * (values.length - 1))];
+			assertThat(sketch.quantile(quantile)).isCloseTo(exact, within(exact * 0.01));
+		}
+		assertThat(sketch.getCount()).isEqualTo(values.length);
+	}
+
+	@Test
+	void removingValuesRestoresTheSketch() {
+		LogBucketSketch sketch = new LogBucketSketch(0.02);
+		sketch.add(0);
+		sketch.add(30_000);
+		sketch.add(45_000);
+		sketch.add(60_000);
+
+		assertThat(sketch.remove(45_000)).isTrue();
+		assertThat(sketch.remove(0)).isTrue();
+		assertThat(sketch.remove(0)).isFalse();
+		assertThat(sketch.remove(1_000_000)).isFalse();
+
+		LogBucketSketch expected = new LogBucketSketch(0.02);
+		expected.add(30_000);
+		expected.add(60_000);
+		assertThat(sketch.getBins()).isEqualTo(expected.getBins());
+		assertThat(sketch.getZeroCount()).isZero();
+		assertThat(sketch.getCount()).isEqualTo(2);
+		assertThat(new LogBucketSketch(0.02).quantile(0.5)).isNaN();
+	}
+
+	@Test
+	void mergedSketchesEqualTheSketchOfAllValues() {
+		LogBucketSketch first = new LogBucketSketch(0.01);
+		LogBucketSketch second = new LogBucketSketch(0.01);
+		LogBucketSketch all = new LogBucketSketch(0.01);
+		for (int value = 0; value < 1000; value++) {
+			(value % 3 == 0 ? first : second).add(value * 97.5);
+			all.add(value * 97.5);
+		}
+
+		// Published state, as returned by GET /offers/aggregates?sketch=true
+		LogBucketSketch merged = LogBucketSketch.of(0.01, first.getZeroCount(), first.getBins());
+		merged.merge(second);
+
+		assertThat(merged.getBins()).isEqualTo(all.getBins());
+		assertThat(merged.getZeroCount()).isEqualTo(all.getZeroCount());
+		assertThat(merged.quantile(0.95)).isEqualTo(all.quantile(0.95));
+		assertThatIllegalArgumentException().isThrownBy(() -> merged.merge(new LogBucketSketch(0.05)));
+	}
+}
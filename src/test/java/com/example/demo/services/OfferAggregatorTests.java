@@ -0,0 +1,74 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferAggregates;
+import com.example.demo.dto.OfferSummary;
+import com.example.demo.repositories.JobOfferRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OfferAggregatorTests {
+
+	@Test
+	void aggregatesFollowCreatedAndDeletedOffers() {
+		JobOfferRepository repository = mock(JobOfferRepository.class);
+		when(repository.scanSummariesAfter(eq(0L), any(Limit.class))).thenReturn(List.of(
+				offer(1, "Acme", 40_000.0, "alice"), offer(2, "Acme", 60_000.0, "bob"), offer(3, "Globex", null, "alice")));
+		OfferAggregator aggregator = new OfferAggregator();
+		aggregator.jobOfferRepository = repository;
+		aggregator.relativeAccuracy = 0.01;
+		aggregator.rebuild();
+
+		OfferAggregates aggregates = aggregator.getAggregates(10, List.of(50.0, 99.9), false);
+		assertThat(aggregates.count()).isEqualTo(3);
+		assertThat(aggregates.companies()).containsExactly(
+				new OfferAggregates.Count("Acme", 2), new OfferAggregates.Count("Globex", 1));
+		assertThat(aggregates.owners()).containsExactly(
+				new OfferAggregates.Count("alice", 2), new OfferAggregates.Count("bob", 1));
+		assertThat(aggregates.salary().count()).isEqualTo(2);
+		assertThat(aggregates.salary().min()).isEqualTo(40_000.0);
+		assertThat(aggregates.salary().max()).isEqualTo(60_000.0);
+		assertThat(aggregates.salary().average()).isEqualTo(50_000.0);
+		assertThat(aggregates.salary().percentiles()).containsOnlyKeys("p50", "p99.9");
+		assertThat(aggregates.salary().sketch()).isNull();
+
+		aggregator.onOffersChanged(OffersChangedEvent.created(List.of(
+				offer(4, "Globex", 90_000.0, "carol"), offer(5, "Globex", 90_000.0, "carol"))));
+		aggregator.onOffersChanged(OffersChangedEvent.deleted(List.of(offer(1, "Acme", 40_000.0, "alice"))));
+
+		aggregates = aggregator.getAggregates(1, List.of(50.0), true);
+		assertThat(aggregates.count()).isEqualTo(4);
+		assertThat(aggregates.companies()).containsExactly(new OfferAggregates.Count("Globex", 3));
+		assertThat(aggregates.companyCount()).isEqualTo(2);
+		assertThat(aggregates.owners()).containsExactly(new OfferAggregates.Count("carol", 2));
+		assertThat(aggregates.ownerCount()).isEqualTo(3);
+		assertThat(aggregates.salary().min()).isEqualTo(60_000.0);
+		assertThat(aggregates.salary().max()).isEqualTo(90_000.0);
+		assertThat(aggregates.salary().average()).isEqualTo(80_000.0);
+		assertThat(aggregates.salary().percentiles().get("p50")).isCloseTo(90_000.0, within(900.0));
+		assertThat(aggregates.salary().sketch().bins().values()).containsExactlyInAnyOrder(1L, 2L);
+
+		aggregator.onOffersChanged(OffersChangedEvent.deleted(List.of(
+				offer(2, "Acme", 60_000.0, "bob"), offer(3, "Globex", null, "alice"),
+				offer(4, "Globex", 90_000.0, "carol"), offer(5, "Globex", 90_000.0, "carol"))));
+
+		aggregates = aggregator.getAggregates(10, List.of(50.0), false);
+		assertThat(aggregates.count()).isZero();
+		assertThat(aggregates.companies()).isEmpty();
+		assertThat(aggregates.owners()).isEmpty();
+		assertThat(aggregates.salary().min()).isNull();
+		assertThat(aggregates.salary().percentiles()).containsEntry("p50", null);
+	}
+
+	private static OfferSummary offer(long id, String company, Double salary, String owner) {
+		return new OfferSummary(id, "Offer " + id, "Description " + id, company, salary, (int) id, owner);
+	}
+}
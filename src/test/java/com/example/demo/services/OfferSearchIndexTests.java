@@ -0,0 +1,162 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferSearchResult;
+import com.example.demo.dto.OfferSummary;
+import com.example.demo.repositories.JobOfferRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OfferSearchIndexTests {
+
+	@Test
+	void tokenizationIgnoresCaseDiacriticsAndPunctuation() {
+		assertThat(OfferSearchIndex.tokenize("Développeur Java/Spring, h-f (CDI)"))
+				.containsExactly("developpeur", "java", "spring", "h", "f", "cdi");
+		assertThat(OfferSearchIndex.tokenize("  ")).isEmpty();
+		assertThat(OfferSearchIndex.tokenize(null)).isEmpty();
+	}
+
+	@Test
+	void allTermsMustMatchAndExactMatchesRankFirst() {
+		OfferSearchIndex index = index(List.of(
+				offer(1, "Java developer", "Backend services", "Acme", 50_000.0),
+				offer(2, "Javascript developer", "Frontend", "Globex", 45_000.0),
+				offer(3, "Accountant", "Java is a plus", "Acme", 40_000.0),
+				offer(4, "Python developer", "Data", "Initech", null)));
+
+		// Title outweighs description, and an exact term outweighs a prefix
+		assertThat(ids(index.search("java", null, null, 0, 10))).containsExactly(1L, 2L, 3L);
+		assertThat(ids(index.search("JAVA developer", null, null, 0, 10))).containsExactly(1L, 2L);
+		assertThat(ids(index.search("java python", null, null, 0, 10))).isEmpty();
+		assertThat(ids(index.search("dév acme", null, null, 0, 10))).containsExactly(1L);
+		assertThat(index.search("rust", null, null, 0, 10).total()).isZero();
+	}
+
+	@Test
+	void salaryRangesFilterWithAndWithoutQuery() {
+		OfferSearchIndex index = index(List.of(
+				offer(1, "Java developer", "", "Acme", 50_000.0),
+				offer(2, "Java architect", "", "Acme", 70_000.0),
+				offer(3, "Tester", "", "Acme", 40_000.0),
+				offer(4, "Java intern", "", "Acme", null)));
+
+		assertThat(ids(index.search("", 45_000.0, null, 0, 10))).containsExactly(1L, 2L);
+		assertThat(ids(index.search("", null, 50_000.0, 0, 10))).containsExactly(1L, 3L);
+		assertThat(ids(index.search("java", 50_000.0, 50_000.0, 0, 10))).containsExactly(1L);
+		assertThat(ids(index.search("java", 60_000.0, 50_000.0, 0, 10))).isEmpty();
+		assertThat(ids(index.search("", null, null, 0, 10))).containsExactly(1L, 2L, 3L, 4L);
+	}
+
+	@Test
+	void pagesMatchASortOfAllResults() {
+		Random random = new Random(7);
+		String[] words = {"java", "javascript", "spring", "senior", "sql", "cloud", "data"};
+		List<OfferSummary> offers = new ArrayList<>();
+		for (long id = 1; id <= 500; id++) {
+			String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+			Double salary = random.nextInt(10) == 0 ? null : 30_000.0 + 1_000 * random.nextInt(50);
+			offers.add(offer(id, title, words[random.nextInt(words.length)], "Company" + random.nextInt(5), salary));
+		}
+		OfferSearchIndex index = index(offers);
+
+		// Unranked: whole index, dense range (walked in id order) and sparse range (read from the salary index)
+		String[] queries = {"", "java", "s", "ja sql", "senior data"};
+		Double[][] ranges = {{null, null}, {35_000.0, null}, {42_000.0, 43_000.0}, {90_000.0, null}};
+		for (String query : queries) {
+			for (Double[] range : ranges) {
+				List<Long> expected = expected(offers, query, range[0], range[1]);
+				for (int size : new int[]{1, 7, 20}) {
+					List<Long> paged = new ArrayList<>();
+					for (int page = 0; page * size <= expected.size(); page++) {
+						OfferSearchResult result = index.search(query, range[0], range[1], page, size);
+						assertThat(result.total()).isEqualTo(expected.size());
+						assertThat(result.items()).hasSizeLessThanOrEqualTo(size);
+						paged.addAll(ids(result));
+					}
+					assertThat(paged).as("%s in %s..%s by %d", query, range[0], range[1], size).isEqualTo(expected);
+				}
+			}
+		}
+	}
+
+	@Test
+	void eventsKeepTheIndexCurrent() {
+		OfferSearchIndex index = index(List.of(offer(1, "Java developer", "", "Acme", 50_000.0)));
+
+		index.onOffersChanged(OffersChangedEvent.created(List.of(offer(2, "Java lead", "", "Acme", 80_000.0))));
+		index.onOffersChanged(OffersChangedEvent.deleted(List.of(offer(1, "Java developer", "", "Acme", 50_000.0))));
+
+		assertThat(ids(index.search("java", null, null, 0, 10))).containsExactly(2L);
+		assertThat(ids(index.search("developer", null, null, 0, 10))).isEmpty();
+		assertThat(ids(index.search("", null, 60_000.0, 0, 10))).isEmpty();
+	}
+
+	/**
+	 * Reference results: every offer matching all terms (exactly or as a prefix), sorted by score then id.
+	 */
+	private static List<Long> expected(List<OfferSummary> offers, String query, Double minSalary, Double maxSalary) {
+		List<String> queryTerms = OfferSearchIndex.tokenize(query).stream().distinct().toList();
+		List<double[]> matches = new ArrayList<>();
+		for (OfferSummary offer : offers) {
+			if ((minSalary != null || maxSalary != null) && (offer.salary() == null
+					|| minSalary != null && offer.salary() < minSalary || maxSalary != null && offer.salary() > maxSalary)) {
+				continue;
+			}
+			double score = 0;
+			boolean all = true;
+			for (String queryTerm : queryTerms) {
+				double termScore = 0;
+				for (String term : terms(offer).keySet()) {
+					if (term.startsWith(queryTerm)) {
+						termScore += terms(offer).get(term) * (term.equals(queryTerm) ? 1 : 0.5);
+					}
+				}
+				all &= termScore > 0;
+				score += termScore;
+			}
+			if (all) {
+				matches.add(new double[]{offer.id(), score});
+			}
+		}
+		matches.sort(Comparator.<double[]>comparingDouble(match -> -match[1]).thenComparingDouble(match -> match[0]));
+		return matches.stream().map(match -> (long) match[0]).toList();
+	}
+
+	private static Map<String, Float> terms(OfferSummary offer) {
+		Map<String, Float> weights = new HashMap<>();
+		OfferSearchIndex.tokenize(offer.title()).forEach(term -> weights.merge(term, 3f, Float::sum));
+		OfferSearchIndex.tokenize(offer.company()).forEach(term -> weights.merge(term, 2f, Float::sum));
+		OfferSearchIndex.tokenize(offer.description()).forEach(term -> weights.merge(term, 1f, Float::sum));
+		return weights;
+	}
+
+	private static OfferSearchIndex index(List<OfferSummary> offers) {
+		JobOfferRepository repository = mock(JobOfferRepository.class);
+		when(repository.scanSummariesAfter(eq(0L), any(Limit.class))).thenReturn(offers);
+		OfferSearchIndex index = new OfferSearchIndex();
+		index.jobOfferRepository = repository;
+		index.rebuild();
+		return index;
+	}
+
+	private static List<Long> ids(OfferSearchResult result) {
+		return result.items().stream().map(OfferSummary::id).toList();
+	}
+
+	private static OfferSummary offer(long id, String title, String description, String company, Double salary) {
+		return new OfferSummary(id, title, description, company, salary, 1, "owner");
+	}
+}
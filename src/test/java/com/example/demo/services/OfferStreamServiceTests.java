@@ -0,0 +1,212 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferStreamEvent;
+import com.example.demo.dto.OfferSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OfferStreamServiceTests {
+
+	@Test
+	void reconnectingClientsResumeFromTheirLastEvent() {
+		OfferStreamService service = new OfferStreamService(4, 10, Duration.ofHours(1), 1, Duration.ofHours(1), new SimpleMeterRegistry());
+		try {
+			RecordingSubscriber live = new RecordingSubscriber();
+			service.subscribe(null, live);
+			for (long id = 1; id <= 6; id++) {
+				service.onOffersChanged(OffersChangedEvent.created(List.of(offer(id))));
+			}
+			service.onOffersChanged(OffersChangedEvent.deleted(List.of(offer(6))));
+			assertThat(live.events).extracting(OfferStreamEvent::type).containsExactly(
+					"created", "created", "created", "created", "created", "created", "deleted");
+			long lastId = live.events.get(6).id();
+
+			RecordingSubscriber resumed = new RecordingSubscriber();
+			service.subscribe(lastId - 2, resumed);
+			assertThat(resumed.events).extracting(OfferStreamEvent::id).containsExactly(lastId - 1, lastId);
+			assertThat(resumed.events.get(1).data()).isEqualTo(offer(6));
+
+			RecordingSubscriber upToDate = new RecordingSubscriber();
+			service.subscribe(lastId, upToDate);
+			assertThat(upToDate.events).isEmpty();
+
+			// Only the last 4 events are kept, and ids of another run fall outside them
+			for (long lastEventId : new long[]{lastId - 5, lastId + 1, 42}) {
+				RecordingSubscriber tooLate = new RecordingSubscriber();
+				service.subscribe(lastEventId, tooLate);
+				assertThat(tooLate.events).containsExactly(new OfferStreamEvent(lastId, OfferStreamEvent.RESET, lastId));
+			}
+
+			service.heartbeat();
+			assertThat(upToDate.events).containsExactly(OfferStreamEvent.HEARTBEAT_EVENT);
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void slowConsumersAreEvictedWithoutHoldingBackTheOthers() throws InterruptedException {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		OfferStreamService service = new OfferStreamService(100, 2, Duration.ofHours(1), 2, Duration.ofHours(1), meterRegistry);
+		try {
+			CountDownLatch stuck = new CountDownLatch(1);
+			CountDownLatch sending = new CountDownLatch(1);
+			CountDownLatch closed = new CountDownLatch(1);
+			service.subscribe(null, new OfferStreamService.Delivery() {
+				@Override
+				public void send(OfferStreamEvent event) {
+					sending.countDown();
+					try {
+						stuck.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+
+				@Override
+				public void close() {
+					closed.countDown();
+				}
+			});
+			List<OfferStreamEvent> delivered = new CopyOnWriteArrayList<>();
+			CountDownLatch oneDelivered = new CountDownLatch(1);
+			CountDownLatch firstDelivered = new CountDownLatch(3);
+			CountDownLatch allDelivered = new CountDownLatch(5);
+			service.subscribe(null, new OfferStreamService.Delivery() {
+				@Override
+				public void send(OfferStreamEvent event) {
+					delivered.add(event);
+					oneDelivered.countDown();
+					firstDelivered.countDown();
+					allDelivered.countDown();
+				}
+
+				@Override
+				public void close() {
+				}
+			});
+
+			service.onOffersChanged(OffersChangedEvent.created(List.of(offer(1))));
+			assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(oneDelivered.await(5, TimeUnit.SECONDS)).isTrue();
+			// The stuck client has one event being sent and two pending: the fourth one evicts it
+			service.onOffersChanged(OffersChangedEvent.created(List.of(offer(2), offer(3))));
+			assertThat(meterRegistry.counter("offers.stream.evictions").count()).isZero();
+			assertThat(firstDelivered.await(5, TimeUnit.SECONDS)).isTrue();
+			service.onOffersChanged(OffersChangedEvent.created(List.of(offer(4), offer(5))));
+			assertThat(meterRegistry.counter("offers.stream.evictions").count()).isEqualTo(1);
+
+			assertThat(allDelivered.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(delivered).extracting(event -> ((OfferSummary) event.data()).id()).containsExactly(1L, 2L, 3L, 4L, 5L);
+			stuck.countDown();
+			assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void clientsStuckInAWriteDoNotHoldTheDeliveryThreads() throws InterruptedException {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		int deliveryThreads = 2;
+		int stuckClients = 3;
+		OfferStreamService service = new OfferStreamService(100, 2, Duration.ofHours(1), deliveryThreads,
+				Duration.ofMillis(200), meterRegistry);
+		CountDownLatch stuck = new CountDownLatch(1);
+		try {
+			CountDownLatch closed = new CountDownLatch(stuckClients);
+			for (int i = 0; i < stuckClients; i++) {
+				service.subscribe(null, new OfferStreamService.Delivery() {
+					@Override
+					public void send(OfferStreamEvent event) {
+						// A client whose TCP window is full: interrupts are not enough to unblock the write
+						while (true) {
+							try {
+								if (stuck.await(1, TimeUnit.MINUTES)) {
+									return;
+								}
+							} catch (InterruptedException e) {
+								// Keep blocking
+							}
+						}
+					}
+
+					@Override
+					public void close() {
+						closed.countDown();
+					}
+				});
+			}
+			List<OfferStreamEvent> delivered = new CopyOnWriteArrayList<>();
+			service.subscribe(null, new OfferStreamService.Delivery() {
+				@Override
+				public void send(OfferStreamEvent event) {
+					delivered.add(event);
+				}
+
+				@Override
+				public void close() {
+				}
+			});
+
+			// More stuck clients than delivery threads: the healthy client is only served once they are given up
+			service.onOffersChanged(OffersChangedEvent.created(List.of(offer(1))));
+			awaitDelivered(delivered, 1);
+			for (long id = 2; id <= 6; id++) {
+				service.onOffersChanged(OffersChangedEvent.created(List.of(offer(id))));
+				awaitDelivered(delivered, (int) id);
+			}
+			assertThat(delivered).extracting(event -> ((OfferSummary) event.data()).id()).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+			// The third stuck client started its write once threads were added, so it may still be within its timeout
+			// (possibly already evicted for its full buffer, which must not keep its thread from being replaced)
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (service.getDeliveryPoolSize() < deliveryThreads + stuckClients && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(meterRegistry.counter("offers.stream.evictions").count()).isEqualTo(stuckClients);
+			assertThat(service.getDeliveryPoolSize()).isEqualTo(deliveryThreads + stuckClients);
+
+			// Once the writes return, the streams are closed and the pool gets back to its size
+			stuck.countDown();
+			assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+			assertThat(service.getDeliveryPoolSize()).isEqualTo(deliveryThreads);
+		} finally {
+			stuck.countDown();
+			service.shutdown();
+		}
+	}
+
+	private static void awaitDelivered(List<OfferStreamEvent> delivered, int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (delivered.size() < count && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(delivered).hasSize(count);
+	}
+
+	private static OfferSummary offer(long id) {
+		return new OfferSummary(id, "Developer", "Java", "ACME", 50_000.0, 1, "owner");
+	}
+
+	private static class RecordingSubscriber implements OfferStreamService.Subscriber {
+
+		private final List<OfferStreamEvent> events = new CopyOnWriteArrayList<>();
+
+		@Override
+		public boolean offer(OfferStreamEvent event) {
+			return events.add(event);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.demo.services;
+
+import com.example.demo.dto.OfferPage;
+import com.example.demo.dto.OfferSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffersSnapshotTests {
+
+	@Test
+	void gzipIsOnlySentWhenAcceptEncodingAllowsIt() {
+		assertThat(OffersSnapshot.acceptsGzip("gzip")).isTrue();
+		assertThat(OffersSnapshot.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+		assertThat(OffersSnapshot.acceptsGzip("x-gzip")).isTrue();
+		assertThat(OffersSnapshot.acceptsGzip("br;q=1.0, *;q=0.1")).isTrue();
+
+		assertThat(OffersSnapshot.acceptsGzip(null)).isFalse();
+		assertThat(OffersSnapshot.acceptsGzip("")).isFalse();
+		assertThat(OffersSnapshot.acceptsGzip("identity")).isFalse();
+		assertThat(OffersSnapshot.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(OffersSnapshot.acceptsGzip("gzip; q=0.000, identity")).isFalse();
+		assertThat(OffersSnapshot.acceptsGzip("*;q=1, gzip;q=0")).isFalse();
+		assertThat(OffersSnapshot.acceptsGzip("*;q=0")).isFalse();
+		assertThat(OffersSnapshot.acceptsGzip("gzip;q=high")).isFalse();
+		assertThat(OffersSnapshot.acceptsGzip("not-gzip")).isFalse();
+	}
+
+	@Test
+	void etagsOnlyMatchAcrossProcessesForTheSameContent() {
+		OfferPage before = new OfferPage(List.of(offer(1, 40_000.0)), null);
+		OfferPage after = new OfferPage(List.of(offer(1, 45_000.0)), null);
+
+		// Two processes (a restart, or two nodes) at the same version
+		OffersSnapshot first = new OffersSnapshot(new ObjectMapper(), 16);
+		OffersSnapshot second = new OffersSnapshot(new ObjectMapper(), 16);
+		OffersSnapshot.SerializedPage stale = first.getPage(0, 50, () -> before);
+		OffersSnapshot.SerializedPage current = second.getPage(0, 50, () -> after);
+		assertThat(first.getVersion()).isEqualTo(second.getVersion());
+		assertThat(current.etag()).isNotEqualTo(stale.etag());
+		assertThat(current.gzipEtag()).isNotEqualTo(stale.gzipEtag()).isNotEqualTo(current.etag());
+
+		OffersSnapshot.SerializedPage same = new OffersSnapshot(new ObjectMapper(), 16).getPage(0, 50, () -> after);
+		assertThat(same.etag()).isEqualTo(current.etag());
+	}
+
+	private static OfferSummary offer(long id, Double salary) {
+		return new OfferSummary(id, "Offer " + id, "Description", "Acme", salary, 1, "alice");
+	}
+}
@@ -0,0 +1,57 @@
+package com.example.demo.services;
+
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.UserAppRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:password-hashing-service-tests")
+class PasswordHashingServiceTests {
+
+	private static final String PASSWORD = "secret123";
+	/** A hash with a work factor below the configured minimum, hence outdated */
+	private static final String WEAK_HASH = "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+	@Autowired
+	private PasswordHashingService passwordHashingService;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private UserAppRepository userAppRepository;
+
+	@Test
+	void outdatedHashesAreReplacedAfterLogin() throws Exception {
+		UserApp user = userAppRepository.save(new UserApp("upgrade-" + UUID.randomUUID(), WEAK_HASH));
+
+		assertThat(passwordHashingService.upgradeIfOutdated(user, PASSWORD).get(10, TimeUnit.SECONDS)).isTrue();
+
+		String upgraded = userAppRepository.findById(user.getId()).orElseThrow().getPassword();
+		assertThat(upgraded).isNotEqualTo(WEAK_HASH);
+		assertThat(passwordEncoder.matches(PASSWORD, upgraded)).isTrue();
+		assertThat(passwordEncoder.upgradeEncoding(upgraded)).isFalse();
+	}
+
+	@Test
+	void aPasswordChangedMeanwhileIsNotOverwritten() throws Exception {
+		UserApp user = userAppRepository.save(new UserApp("upgrade-" + UUID.randomUUID(), WEAK_HASH));
+		// Changed between the login that read the weak hash and the storage of its upgrade
+		UserApp changed = userAppRepository.findById(user.getId()).orElseThrow();
+		changed.setPassword(passwordEncoder.encode("new-password"));
+		userAppRepository.save(changed);
+
+		assertThat(passwordHashingService.upgradeIfOutdated(user, PASSWORD).get(10, TimeUnit.SECONDS)).isFalse();
+
+		String stored = userAppRepository.findById(user.getId()).orElseThrow().getPassword();
+		assertThat(passwordEncoder.matches("new-password", stored)).isTrue();
+	}
+}
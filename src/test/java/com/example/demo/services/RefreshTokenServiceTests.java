@@ -0,0 +1,123 @@
+package com.example.demo.services;
+
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.UserAppRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:refresh-token-service-tests",
+		"jwt.refresh-token.grace-period=1s"
+})
+class RefreshTokenServiceTests {
+
+	private static final long AFTER_GRACE_PERIOD_MILLIS = 1500;
+
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private TokenVersionService tokenVersionService;
+
+	@Autowired
+	private UserAppRepository userAppRepository;
+
+	@Test
+	void rotationIssuesANewTokenOfTheSameSession() {
+		String token = refreshTokenService.issue(newUser()).token();
+
+		RefreshTokenService.TokenPair rotated = refreshTokenService.refresh(token);
+		assertThat(rotated.accessToken()).isNotBlank();
+		assertThat(rotated.refreshToken().token()).isNotEqualTo(token);
+
+		RefreshTokenService.TokenPair next = refreshTokenService.refresh(rotated.refreshToken().token());
+		assertThat(next.refreshToken().token()).isNotIn(token, rotated.refreshToken().token());
+		assertThatThrownBy(() -> refreshTokenService.refresh("unknown")).isInstanceOf(BadCredentialsException.class);
+	}
+
+	@Test
+	void concurrentAndRepeatedRefreshesWithinTheGracePeriodShareOneRotation() throws Exception {
+		String token = refreshTokenService.issue(newUser()).token();
+		int threads = 8;
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<RefreshTokenService.TokenPair>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return refreshTokenService.refresh(token);
+				}));
+			}
+			start.countDown();
+			RefreshTokenService.TokenPair first = futures.get(0).get();
+			for (Future<RefreshTokenService.TokenPair> future : futures) {
+				assertThat(future.get()).isEqualTo(first);
+			}
+			assertThat(refreshTokenService.refresh(token)).isEqualTo(first);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void reuseAfterTheGracePeriodRevokesTheWholeSession() throws Exception {
+		String token = refreshTokenService.issue(newUser()).token();
+		String rotated = refreshTokenService.refresh(token).refreshToken().token();
+
+		Thread.sleep(AFTER_GRACE_PERIOD_MILLIS);
+		assertThatThrownBy(() -> refreshTokenService.refresh(token))
+				.isInstanceOf(BadCredentialsException.class).hasMessageContaining("reused");
+		// The legitimate client's token belongs to the same family, so it is revoked too
+		assertThatThrownBy(() -> refreshTokenService.refresh(rotated))
+				.isInstanceOf(BadCredentialsException.class).hasMessageContaining("revoked");
+	}
+
+	@Test
+	void logoutRevokesTheWholeSession() {
+		UserApp user = newUser();
+		String token = refreshTokenService.issue(user).token();
+		String rotated = refreshTokenService.refresh(token).refreshToken().token();
+		String otherSession = refreshTokenService.issue(user).token();
+
+		refreshTokenService.revoke(rotated);
+
+		assertThatThrownBy(() -> refreshTokenService.refresh(rotated)).isInstanceOf(BadCredentialsException.class);
+		// Even the rotation remembered for the grace period is forgotten
+		assertThatThrownBy(() -> refreshTokenService.refresh(token)).isInstanceOf(BadCredentialsException.class);
+		assertThat(refreshTokenService.refresh(otherSession).accessToken()).isNotBlank();
+	}
+
+	@Test
+	void logoutAllMakesEveryRefreshFail() {
+		UserApp user = newUser();
+		String token = refreshTokenService.issue(user).token();
+		refreshTokenService.refresh(token);
+		String otherSession = refreshTokenService.issue(user).token();
+
+		tokenVersionService.revokeTokens(userAppRepository.findById(user.getId()).orElseThrow());
+
+		assertThatThrownBy(() -> refreshTokenService.refresh(otherSession))
+				.isInstanceOf(BadCredentialsException.class).hasMessageContaining("outdated");
+		// A repeat within the grace period does not hand out the tokens issued before the logout
+		assertThatThrownBy(() -> refreshTokenService.refresh(token))
+				.isInstanceOf(BadCredentialsException.class).hasMessageContaining("outdated");
+	}
+
+	private UserApp newUser() {
+		return userAppRepository.save(new UserApp("refresh-" + UUID.randomUUID(), "password"));
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.demo.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTests {
+
+	private static final int THREADS = 16;
+
+	@Test
+	void concurrentAcquisitionsNeverExceedCapacity() throws Exception {
+		AtomicLong clock = new AtomicLong();
+		TokenBucketLimiter limiter = new TokenBucketLimiter(100, Duration.ofHours(1), 1000, Duration.ofMinutes(10), clock::get);
+		AtomicLong granted = new AtomicLong();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			Future<?>[] futures = new Future<?>[THREADS];
+			for (int i = 0; i < THREADS; i++) {
+				futures[i] = executor.submit(() -> {
+					start.await();
+					for (int j = 0; j < 10_000; j++) {
+						if (limiter.tryAcquire("shared-key") == 0) {
+							granted.incrementAndGet();
+						}
+					}
+					return null;
+				});
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertThat(granted.get()).isEqualTo(100);
+	}
+
+	@Test
+	void refillsAtTheConfiguredRateAndReportsTheWait() {
+		AtomicLong clock = new AtomicLong();
+		TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(2), 1000, Duration.ofMinutes(10), clock::get);
+		assertThat(limiter.tryAcquire("key")).isZero();
+		assertThat(limiter.tryAcquire("key")).isZero();
+		assertThat(limiter.tryAcquire("key")).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+		assertThat(limiter.tryAcquire("other-key")).isZero();
+
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+		assertThat(limiter.tryAcquire("key")).isPositive();
+		clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+		assertThat(limiter.tryAcquire("key")).isZero();
+		assertThat(limiter.tryAcquire("key")).isPositive();
+	}
+
+	@Test
+	void memoryStaysBoundedUnderAFloodOfDistinctKeys() throws Exception {
+		AtomicLong clock = new AtomicLong();
+		TokenBucketLimiter limiter = new TokenBucketLimiter(1, Duration.ofSeconds(1), 640, Duration.ofSeconds(1), clock::get);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			Future<?>[] futures = new Future<?>[THREADS];
+			for (int i = 0; i < THREADS; i++) {
+				int thread = i;
+				futures[i] = executor.submit(() -> {
+					start.await();
+					for (int j = 0; j < 20_000; j++) {
+						limiter.tryAcquire("client-" + thread + "-" + j);
+					}
+					return null;
+				});
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		// Concurrent inserts may overshoot a stripe's share by at most one entry per thread
+		assertThat(limiter.size()).isLessThanOrEqualTo(640 + 64 * THREADS);
+
+		// Once idle, the buckets are evicted to make room for new keys
+		clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+		int granted = 0;
+		for (int j = 0; j < 1000; j++) {
+			if (limiter.tryAcquire("new-client-" + j) == 0) {
+				granted++;
+			}
+		}
+		// Without eviction, only the 64 overflow buckets could have granted anything
+		assertThat(granted).isGreaterThan(64 * 4);
+		assertThat(limiter.size()).isLessThanOrEqualTo(640);
+	}
+}
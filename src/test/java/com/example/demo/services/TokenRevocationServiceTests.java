@@ -0,0 +1,58 @@
+package com.example.demo.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationServiceTests {
+
+	@Test
+	void revokedTokensAreRejectedUntilTheyExpire() {
+		InMemoryRevocationStore store = new InMemoryRevocationStore();
+		TokenRevocationService service = new TokenRevocationService(store, 1000, 0.01, Duration.ofHours(1),
+				new SimpleMeterRegistry());
+		try {
+			assertThat(service.revoke("live", Date.from(Instant.now().plusSeconds(3600)))).isTrue();
+			assertThat(service.revoke("expired", Date.from(Instant.now().minusSeconds(1)))).isTrue();
+			assertThat(service.revoke(null, new Date())).isFalse();
+
+			assertThat(service.isRevoked("live")).isTrue();
+			assertThat(service.isRevoked("expired")).isFalse();
+			assertThat(service.isRevoked("other")).isFalse();
+			assertThat(service.isRevoked(null)).isFalse();
+
+			service.sync();
+			assertThat(store.findActive(Instant.EPOCH)).containsExactly("live");
+			assertThat(service.isRevoked("live")).isTrue();
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void bloomFilterNeverMissesAndRarelyAnswersMaybe() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		String[] added = new String[10_000];
+		for (int i = 0; i < added.length; i++) {
+			added[i] = UUID.randomUUID().toString();
+			filter.put(added[i]);
+		}
+		for (String value : added) {
+			assertThat(filter.mightContain(value)).isTrue();
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain(UUID.randomUUID().toString())) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives).isLessThan(2_000);
+	}
+}
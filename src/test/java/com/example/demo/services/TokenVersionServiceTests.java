@@ -0,0 +1,58 @@
+package com.example.demo.services;
+
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.UserAppRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.DisabledException;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:token-version-service-tests")
+class TokenVersionServiceTests {
+
+	@Autowired
+	private TokenVersionService tokenVersionService;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private VerifiedTokenCache verifiedTokenCache;
+
+	@Autowired
+	private UserAppRepository userAppRepository;
+
+	@Test
+	void revokingTokensRejectsTokensAlreadyInTheVerifiedTokenCache() {
+		UserApp user = userAppRepository.save(new UserApp("user-" + UUID.randomUUID(), "password"));
+		String token = JwtService.generateToken(user);
+		assertThat(username(jwtService.authenticate(token).getPrincipal())).isEqualTo(user.getUsername());
+		assertThat(verifiedTokenCache.get(token)).isNotNull();
+
+		UserApp revoked = tokenVersionService.revokeTokens(user);
+		assertThat(revoked.getTokenVersion()).isEqualTo(1);
+		assertThat(tokenVersionService.isCurrent(user.getId(), 0)).isFalse();
+		assertThat(tokenVersionService.isCurrent(user.getId(), 1)).isTrue();
+
+		assertThatThrownBy(() -> jwtService.authenticate(token)).isInstanceOf(DisabledException.class);
+		assertThat(verifiedTokenCache.get(token)).isNull();
+		assertThatThrownBy(() -> jwtService.authenticate(token)).isInstanceOf(DisabledException.class);
+
+		String newToken = JwtService.generateToken(revoked);
+		assertThat(username(jwtService.authenticate(newToken).getPrincipal())).isEqualTo(user.getUsername());
+	}
+
+	@Test
+	void unknownUsersHaveNoCurrentVersion() {
+		assertThat(tokenVersionService.isCurrent(Integer.MAX_VALUE, 0)).isFalse();
+	}
+
+	private static String username(Object principal) {
+		return ((UserApp) principal).getUsername();
+	}
+}
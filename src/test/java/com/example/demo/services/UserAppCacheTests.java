@@ -0,0 +1,59 @@
+package com.example.demo.services;
+
+import com.example.demo.models.Role;
+import com.example.demo.models.UserApp;
+import com.example.demo.repositories.UserAppRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:user-app-cache-tests")
+class UserAppCacheTests {
+
+	@Autowired
+	private UserAppCache userAppCache;
+
+	@Autowired
+	private UserAppRepository userAppRepository;
+
+	@Test
+	void registeredUserIsFoundDespiteAnEarlierNegativeLookup() {
+		String username = "user-" + UUID.randomUUID();
+		assertThat(userAppCache.findByUsername(username)).isEmpty();
+
+		userAppRepository.save(new UserApp(username, "password"));
+
+		assertThat(userAppCache.findByUsername(username)).hasValueSatisfying(user ->
+				assertThat(user.getUsername()).isEqualTo(username));
+	}
+
+	@Test
+	void updatedUserIsServedWithItsNewState() {
+		UserApp user = userAppRepository.save(new UserApp("user-" + UUID.randomUUID(), "password"));
+		assertThat(userAppCache.findByUsername(user.getUsername()).orElseThrow().getRole()).isEqualTo(Role.USER);
+
+		user.setRole(Role.ADMIN);
+		userAppRepository.save(user);
+
+		assertThat(userAppCache.findByUsername(user.getUsername()).orElseThrow().getRole()).isEqualTo(Role.ADMIN);
+	}
+
+	@Test
+	void deletedUserIsNoLongerServed() {
+		UserApp user = userAppRepository.save(new UserApp("user-" + UUID.randomUUID(), "password"));
+		assertThat(userAppCache.findByUsername(user.getUsername())).isPresent();
+
+		userAppRepository.delete(user);
+
+		assertThat(userAppCache.findByUsername(user.getUsername())).isEmpty();
+	}
+
+	@Test
+	void nullUsernameIsNeverLookedUp() {
+		assertThat(userAppCache.findByUsername(null)).isEmpty();
+	}
+}
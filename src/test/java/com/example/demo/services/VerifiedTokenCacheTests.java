@@ -0,0 +1,71 @@
+package com.example.demo.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTests {
+
+	private static final List<SimpleGrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+	@Test
+	void verifiedTokensAreServedUntilInvalidated() {
+		VerifiedTokenCache cache = newCache(true, Duration.ofMinutes(10));
+		Date expiration = new Date(System.currentTimeMillis() + 60_000);
+		cache.put("token", "id", "principal", AUTHORITIES, expiration);
+
+		VerifiedTokenCache.VerifiedToken verifiedToken = cache.get("token");
+		assertThat(verifiedToken).isNotNull();
+		assertThat(verifiedToken.tokenId()).isEqualTo("id");
+		assertThat(verifiedToken.principal()).isEqualTo("principal");
+		assertThat(verifiedToken.authorities()).containsExactlyElementsOf(AUTHORITIES);
+		assertThat(verifiedToken.expiresAt()).isEqualTo(expiration.getTime());
+		assertThat(cache.get("other")).isNull();
+
+		cache.invalidate("token");
+		assertThat(cache.get("token")).isNull();
+	}
+
+	@Test
+	void tokensAreNotServedPastTheirExpiration() throws InterruptedException {
+		VerifiedTokenCache cache = newCache(true, Duration.ofMinutes(10));
+		cache.put("expired", "id", "principal", AUTHORITIES, new Date(System.currentTimeMillis() - 1));
+		cache.put("expiring", "id", "principal", AUTHORITIES, new Date(System.currentTimeMillis() + 200));
+		cache.put("no-expiration", "id", "principal", AUTHORITIES, null);
+
+		assertThat(cache.get("expired")).isNull();
+		assertThat(cache.get("expiring")).isNotNull();
+		assertThat(cache.get("no-expiration")).isNull();
+
+		Thread.sleep(300);
+		assertThat(cache.get("expiring")).isNull();
+	}
+
+	@Test
+	void tokensAreNotServedPastTheTimeToLive() throws InterruptedException {
+		VerifiedTokenCache cache = newCache(true, Duration.ofMillis(200));
+		cache.put("token", "id", "principal", AUTHORITIES, new Date(System.currentTimeMillis() + 60_000));
+		assertThat(cache.get("token")).isNotNull();
+
+		Thread.sleep(300);
+		assertThat(cache.get("token")).isNull();
+	}
+
+	@Test
+	void disabledCacheKeepsNothing() {
+		VerifiedTokenCache cache = newCache(false, Duration.ofMinutes(10));
+		cache.put("token", "id", "principal", AUTHORITIES, new Date(System.currentTimeMillis() + 60_000));
+
+		assertThat(cache.get("token")).isNull();
+	}
+
+	private static VerifiedTokenCache newCache(boolean enabled, Duration timeToLive) {
+		return new VerifiedTokenCache(enabled, 100, timeToLive, new SimpleMeterRegistry());
+	}
+}